@@ -0,0 +1,301 @@
+/* *****************************************************************************
+ *  Topic:        Percolation on very large grids.
+ *                Same model and API as Percolation, but the union-find parent
+ *                and status arrays live in memory-mapped temporary files and
+ *                are indexed by long, so n * n may exceed Integer.MAX_VALUE
+ *                and the grid never sits on the Java heap. Close the grid when
+ *                done with it: the files are unlinked at once, but their disk
+ *                space is only returned when the mappings are released.
+ *  @author:      Ying Chu
+ **************************************************************************** */
+import edu.princeton.cs.algs4.StdIn;
+import edu.princeton.cs.algs4.StdOut;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+public class LargePercolation implements AutoCloseable {
+    // the status bits of SiteUnionFind; find and union below follow it too,
+    // but over long indices into mapped storage, with roots encoded so that
+    // a fresh zero-filled mapping is already a valid forest
+    private static final byte OPEN = SiteUnionFind.OPEN;
+    private static final byte TOP = SiteUnionFind.TOP;       // top row
+    private static final byte BOTTOM = SiteUnionFind.BOTTOM; // bottom row
+
+    private final int n; // grid length
+    // union-find over the n * n sites. A fresh mapping reads as zeros, so the
+    // encoding makes zero mean "root of size 1" and needs no fill pass:
+    // stored > 0 is parent + 1, stored <= 0 is a root of size 1 - stored
+    private final MappedLongArray parent;
+    private final MappedByteArray status;
+    private long count = 0; // number of open sites
+    private boolean percolates = false;
+    private boolean closed = false;
+
+    // creates n-by-n grid, with all sites initially blocked, backed by files
+    // in the default temporary directory
+    public LargePercolation(int n) {
+        this(n, null);
+    }
+
+    // creates n-by-n grid, with all sites initially blocked, backed by files in
+    // the given directory (the default temporary directory if null). The
+    // files take 9 bytes per site, so for large grids pick a directory on
+    // disk: java.io.tmpdir is often held in memory.
+    public LargePercolation(int n, File directory) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("length must be positive");
+        }
+        this.n = n;
+        long sites = (long) n * n;
+        parent = new MappedLongArray(sites, directory);
+        try {
+            status = new MappedByteArray(sites, directory);
+        } catch (RuntimeException e) {
+            parent.close();
+            throw e;
+        }
+    }
+
+    // opens the site (row, col) if it is not open already
+    public void open(int row, int col) {
+        validate(row, col);
+        long index = (long) (row - 1) * n + (col - 1);
+        if ((status.get(index) & OPEN) != 0) {
+            return;
+        }
+        byte flags = OPEN;
+        if (row == 1) {
+            flags |= TOP;
+        }
+        if (row == n) {
+            flags |= BOTTOM;
+        }
+        status.set(index, flags);
+        count++;
+
+        // above
+        if (row != 1 && (status.get(index - n) & OPEN) != 0) {
+            union(index, index - n);
+        }
+        // below
+        if (row != n && (status.get(index + n) & OPEN) != 0) {
+            union(index, index + n);
+        }
+        // left
+        if (col != 1 && (status.get(index - 1) & OPEN) != 0) {
+            union(index, index - 1);
+        }
+        // right
+        if (col != n && (status.get(index + 1) & OPEN) != 0) {
+            union(index, index + 1);
+        }
+
+        if ((status.get(find(index)) & (TOP | BOTTOM)) == (TOP | BOTTOM)) {
+            percolates = true;
+        }
+    }
+
+    // is the site (row, col) open?
+    public boolean isOpen(int row, int col) {
+        validate(row, col);
+        return (status.get((long) (row - 1) * n + (col - 1)) & OPEN) != 0;
+    }
+
+    // is the site (row, col) full? Its component has to touch the top row.
+    public boolean isFull(int row, int col) {
+        validate(row, col);
+        long index = (long) (row - 1) * n + (col - 1);
+        return (status.get(index) & OPEN) != 0 && (status.get(find(index)) & TOP) != 0;
+    }
+
+    // returns the number of open sites
+    public long numberOfOpenSites() {
+        return count;
+    }
+
+    // does the system percolate?
+    public boolean percolates() {
+        return percolates;
+    }
+
+    // releases the mappings and with them the backing files' disk space;
+    // the grid cannot be used afterwards
+    public void close() {
+        if (!closed) {
+            closed = true;
+            parent.close();
+            status.close();
+        }
+    }
+
+    private void validate(int row, int col) {
+        if (closed) {
+            throw new IllegalStateException("grid is closed");
+        }
+        if (row < 1 || row > n || col < 1 || col > n) {
+            throw new IllegalArgumentException("Index out of bounds");
+        }
+    }
+
+    // root of site p, halving the path on the way up
+    private long find(long p) {
+        long up = parent.get(p);
+        while (up > 0) {
+            long grand = parent.get(up - 1);
+            if (grand > 0) {
+                parent.set(p, grand);
+                up = grand;
+            }
+            p = up - 1;
+            up = parent.get(p);
+        }
+        return p;
+    }
+
+    // merge the components of p and q by size, or-ing their status bits
+    private void union(long p, long q) {
+        long rootP = find(p);
+        long rootQ = find(q);
+        if (rootP == rootQ) {
+            return;
+        }
+        long sizeP = 1 - parent.get(rootP);
+        long sizeQ = 1 - parent.get(rootQ);
+        if (sizeP < sizeQ) {
+            long swap = rootP;
+            rootP = rootQ;
+            rootQ = swap;
+        }
+        parent.set(rootP, 1 - (sizeP + sizeQ));
+        parent.set(rootQ, rootP + 1);
+        status.set(rootP, (byte) (status.get(rootP) | status.get(rootQ)));
+    }
+
+    // maps a zero-filled temporary file of the given size in directory, in
+    // native-order chunks of at most 1 << chunkBits bytes; the file is
+    // unlinked as soon as it is mapped
+    private static ByteBuffer[] map(long bytes, int chunkBits, File directory) {
+        long chunk = 1L << chunkBits;
+        ByteBuffer[] chunks = new ByteBuffer[(int) ((bytes + chunk - 1) >>> chunkBits)];
+        try {
+            File file = File.createTempFile("percolation", ".grid", directory);
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(bytes);
+                FileChannel channel = raf.getChannel();
+                for (int i = 0; i < chunks.length; i++) {
+                    long offset = i * chunk;
+                    chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE, offset,
+                                            Math.min(chunk, bytes - offset))
+                                       .order(ByteOrder.nativeOrder());
+                }
+            } finally {
+                if (!file.delete()) {
+                    file.deleteOnExit();
+                }
+            }
+        } catch (IOException e) {
+            unmap(chunks);
+            throw new UncheckedIOException("cannot map grid storage", e);
+        }
+        return chunks;
+    }
+
+    // the JDK has no public call to unmap a buffer before it is collected, so
+    // this looks up the cleaner hook in jdk.unsupported; without it the
+    // chunks are only dropped, and unmapped whenever the collector gets to them
+    private static final MethodHandle INVOKE_CLEANER = invokeCleaner();
+
+    private static MethodHandle invokeCleaner() {
+        try {
+            Class<?> unsafe = Class.forName("sun.misc.Unsafe");
+            Field field = unsafe.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            return MethodHandles.lookup()
+                                .findVirtual(unsafe, "invokeCleaner",
+                                             MethodType.methodType(void.class, ByteBuffer.class))
+                                .bindTo(field.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static void unmap(ByteBuffer[] chunks) {
+        for (int i = 0; i < chunks.length; i++) {
+            if (chunks[i] != null && INVOKE_CLEANER != null) {
+                try {
+                    INVOKE_CLEANER.invokeExact(chunks[i]);
+                } catch (Throwable e) {
+                    throw new IllegalStateException("cannot unmap grid storage", e);
+                }
+            }
+            chunks[i] = null;
+        }
+    }
+
+    private static final class MappedLongArray {
+        private static final int CHUNK_BITS = 27; // longs per chunk: 1 GiB
+        private static final long MASK = (1L << CHUNK_BITS) - 1;
+        private final ByteBuffer[] chunks;
+
+        MappedLongArray(long length, File directory) {
+            chunks = map(length * Long.BYTES, CHUNK_BITS + 3, directory);
+        }
+
+        long get(long i) {
+            return chunks[(int) (i >>> CHUNK_BITS)].getLong((int) (i & MASK) << 3);
+        }
+
+        void set(long i, long value) {
+            chunks[(int) (i >>> CHUNK_BITS)].putLong((int) (i & MASK) << 3, value);
+        }
+
+        void close() {
+            unmap(chunks);
+        }
+    }
+
+    private static final class MappedByteArray {
+        private static final int CHUNK_BITS = 30; // bytes per chunk: 1 GiB
+        private static final long MASK = (1L << CHUNK_BITS) - 1;
+        private final ByteBuffer[] chunks;
+
+        MappedByteArray(long length, File directory) {
+            chunks = map(length, CHUNK_BITS, directory);
+        }
+
+        byte get(long i) {
+            return chunks[(int) (i >>> CHUNK_BITS)].get((int) (i & MASK));
+        }
+
+        void set(long i, byte value) {
+            chunks[(int) (i >>> CHUNK_BITS)].put((int) (i & MASK), value);
+        }
+
+        void close() {
+            unmap(chunks);
+        }
+    }
+
+    // test client
+    public static void main(String[] args) {
+
+        int n = StdIn.readInt();
+        try (LargePercolation percolation = new LargePercolation(n)) {
+            while (!StdIn.isEmpty()) {
+                int row = StdIn.readInt();
+                int col = StdIn.readInt();
+                percolation.open(row, col);
+            }
+            StdOut.println("percolation is " + percolation.percolates());
+        }
+    }
+}
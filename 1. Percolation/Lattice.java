@@ -0,0 +1,242 @@
+/* *****************************************************************************
+ *  Topic:        Lattices for LatticePercolation.
+ *                A lattice says how many sites there are, which of them form
+ *                the top and bottom layers, which sites neighbour each site and
+ *                which pairs of neighbours are joined by a bond. Subclass it
+ *                for other neighbourhoods; neighbours() fills a buffer with all
+ *                of a site's neighbours in one call, so the percolation loop
+ *                makes one call per site rather than one per neighbour.
+ *                The built-in lattices are d-dimensional boxes stored in
+ *                row-major order, whose first dimension runs from the top
+ *                layer to the bottom layer and whose others may wrap around
+ *                (periodic boundary). Each site's position on the faces of the
+ *                box is precomputed as a bit mask, so a neighbour is a stride
+ *                away unless a mask bit says otherwise, with no division.
+ *  @author:      Ying Chu
+ **************************************************************************** */
+
+public abstract class Lattice {
+
+    // number of sites
+    public abstract int sites();
+
+    // largest number of neighbours a site can have
+    public abstract int degree();
+
+    // writes the neighbours of site to the front of out, which has room for
+    // degree() of them, and returns how many there are
+    public abstract int neighbours(int site, int[] out);
+
+    // is site in the top layer?
+    public abstract boolean isTop(int site);
+
+    // is site in the bottom layer?
+    public abstract boolean isBottom(int site);
+
+    // number of bond slots; some slots may have no bond
+    public abstract int bonds();
+
+    // site at one end of bond
+    public abstract int bondSource(int bond);
+
+    // site at the other end of bond, or -1 if the bond slot has no bond
+    public abstract int bondTarget(int bond);
+
+    // d-dimensional box with the given lengths; periodic[d] makes dimension d
+    // wrap around, which is not allowed for the first dimension
+    public static Lattice box(int[] dims, boolean[] periodic) {
+        if (dims != null && dims.length == 2) {
+            return new Grid(dims, periodic);
+        }
+        return new Box(dims, periodic);
+    }
+
+    // n-by-n square grid, as in Percolation
+    public static Lattice square(int n) {
+        return rectangular(n, n);
+    }
+
+    // rows-by-cols grid, percolating from the top row to the bottom row
+    public static Lattice rectangular(int rows, int cols) {
+        return box(new int[] { rows, cols }, new boolean[] { false, false });
+    }
+
+    // rows-by-cols grid whose columns wrap around (a cylinder)
+    public static Lattice periodic(int rows, int cols) {
+        return box(new int[] { rows, cols }, new boolean[] { false, true });
+    }
+
+    // n-by-n-by-n cube, percolating from the top layer to the bottom layer
+    public static Lattice cubic(int n) {
+        return box(new int[] { n, n, n }, new boolean[] { false, false, false });
+    }
+
+    void validateSite(int site) {
+        if (site < 0 || site >= sites()) {
+            throw new IllegalArgumentException("Index out of bounds");
+        }
+    }
+
+    // d-dimensional box; bond slot d * sites() + site joins site to its next
+    // neighbour along dimension d, where that neighbour exists
+    private static class Box extends Lattice {
+        // a byte of face bits per site: two per dimension
+        private static final int MAX_DIMENSIONS = 4;
+
+        final int[] dims;       // length of each dimension, dims[0] is top to bottom
+        final int[] strides;    // index distance of one step along each dimension
+        final int[] spans;      // index distance from the first to the last layer
+        final boolean[] periodic;
+        final int sites;
+        // bit 2d: site is on the low face of dimension d, bit 2d + 1: on the high face
+        final byte[] faces;
+
+        Box(int[] dims, boolean[] periodic) {
+            if (dims == null || periodic == null || dims.length == 0
+                    || dims.length != periodic.length) {
+                throw new IllegalArgumentException("one length and one flag per dimension");
+            }
+            if (dims.length > MAX_DIMENSIONS) {
+                throw new IllegalArgumentException("at most " + MAX_DIMENSIONS + " dimensions");
+            }
+            if (periodic[0]) {
+                throw new IllegalArgumentException("the top-to-bottom dimension cannot wrap");
+            }
+            this.dims = dims.clone();
+            this.periodic = periodic.clone();
+            strides = new int[dims.length];
+            spans = new int[dims.length];
+            long size = 1;
+            for (int d = dims.length - 1; d >= 0; d--) {
+                if (dims[d] <= 0) {
+                    throw new IllegalArgumentException("length must be positive");
+                }
+                strides[d] = (int) size;
+                size *= dims[d];
+                if (size > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("too many sites");
+                }
+                spans[d] = (dims[d] - 1) * strides[d];
+            }
+            sites = (int) size;
+            faces = new byte[sites];
+
+            // walk the coordinates like an odometer, last dimension fastest
+            int[] coord = new int[dims.length];
+            for (int site = 0; site < sites; site++) {
+                int mask = 0;
+                for (int d = 0; d < dims.length; d++) {
+                    if (coord[d] == 0) {
+                        mask |= 1 << (2 * d);
+                    }
+                    if (coord[d] == dims[d] - 1) {
+                        mask |= 1 << (2 * d + 1);
+                    }
+                }
+                faces[site] = (byte) mask;
+                for (int d = dims.length - 1; d >= 0 && ++coord[d] == dims[d]; d--) {
+                    coord[d] = 0;
+                }
+            }
+        }
+
+        public int sites() {
+            return sites;
+        }
+
+        public int degree() {
+            return 2 * dims.length;
+        }
+
+        public int neighbours(int site, int[] out) {
+            int mask = faces[site];
+            int count = 0;
+            for (int d = 0; d < dims.length; d++, mask >>>= 2) {
+                if ((mask & 2) == 0) {
+                    out[count++] = site + strides[d];
+                } else if (periodic[d]) {
+                    out[count++] = site - spans[d];
+                }
+                if ((mask & 1) == 0) {
+                    out[count++] = site - strides[d];
+                } else if (periodic[d]) {
+                    out[count++] = site + spans[d];
+                }
+            }
+            return count;
+        }
+
+        public boolean isTop(int site) {
+            return site < strides[0];
+        }
+
+        public boolean isBottom(int site) {
+            return site >= sites - strides[0];
+        }
+
+        public int bonds() {
+            if ((long) sites * dims.length > Integer.MAX_VALUE) {
+                throw new IllegalStateException("too many bonds");
+            }
+            return sites * dims.length;
+        }
+
+        public int bondSource(int bond) {
+            while (bond >= sites) {
+                bond -= sites;
+            }
+            return bond;
+        }
+
+        public int bondTarget(int bond) {
+            int d = 0;
+            while (bond >= sites) {
+                bond -= sites;
+                d++;
+            }
+            if ((faces[bond] & (2 << (2 * d))) == 0) {
+                return bond + strides[d];
+            }
+            return periodic[d] ? bond - spans[d] : -1;
+        }
+    }
+
+    // the two-dimensional box with its neighbour loop unrolled: the row step
+    // and column step are fields rather than array reads
+    private static final class Grid extends Box {
+        private static final int TOP_FACE = 1;
+        private static final int BOTTOM_FACE = 2;
+        private static final int LEFT_FACE = 4;
+        private static final int RIGHT_FACE = 8;
+        private final int cols;
+        private final boolean wraps;
+
+        Grid(int[] dims, boolean[] periodic) {
+            super(dims, periodic);
+            cols = dims[1];
+            wraps = periodic[1];
+        }
+
+        public int neighbours(int site, int[] out) {
+            int mask = faces[site];
+            int count = 0;
+            if ((mask & BOTTOM_FACE) == 0) {
+                out[count++] = site + cols;
+            }
+            if ((mask & TOP_FACE) == 0) {
+                out[count++] = site - cols;
+            }
+            if ((mask & RIGHT_FACE) == 0) {
+                out[count++] = site + 1;
+            } else if (wraps) {
+                out[count++] = site - (cols - 1);
+            }
+            if ((mask & LEFT_FACE) == 0) {
+                out[count++] = site - 1;
+            } else if (wraps) {
+                out[count++] = site + (cols - 1);
+            }
+            return count;
+        }
+    }
+}
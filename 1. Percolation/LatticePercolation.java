@@ -0,0 +1,208 @@
+/* *****************************************************************************
+ *  Topic:        Percolation on general lattices.
+ *                Site percolation opens sites and joins each new site to its
+ *                open neighbours; bond percolation keeps every site and opens
+ *                the bonds between neighbours. Either way the system percolates
+ *                once the top layer of the lattice is connected to the bottom
+ *                layer. Square grids are better served by Percolation, which
+ *                has its neighbour checks inlined.
+ *  Usage:        java LatticePercolation site|bond square|rect|periodic|cubic
+ *                                        dims... trials seed
+ *  @author:      Ying Chu
+ **************************************************************************** */
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.StdStats;
+import java.util.SplittableRandom;
+
+public class LatticePercolation {
+    // what gets opened
+    public enum Mode {
+        SITE, // sites, joined to their open neighbours
+        BOND  // bonds between neighbouring sites, all sites are open
+    }
+
+    private static final byte TOP = SiteUnionFind.TOP;       // top layer
+    private static final byte BOTTOM = SiteUnionFind.BOTTOM; // bottom layer
+
+    private final Lattice lattice;
+    private final Mode mode;
+    private final SiteUnionFind sites;
+    private final int[] neighbours;   // scratch for Lattice.neighbours
+    private final boolean[] bondOpen; // BOND mode only
+    private int count = 0; // number of open sites or bonds
+    private boolean percolates = false;
+
+    // creates a system on the given lattice with every site (SITE mode) or
+    // every bond (BOND mode) initially blocked
+    public LatticePercolation(Lattice lattice, Mode mode) {
+        if (lattice == null || mode == null) {
+            throw new IllegalArgumentException("lattice and mode cannot be null");
+        }
+        this.lattice = lattice;
+        this.mode = mode;
+        sites = new SiteUnionFind(lattice.sites());
+        neighbours = new int[lattice.degree()];
+        if (mode == Mode.BOND) {
+            bondOpen = new boolean[lattice.bonds()];
+            for (int site = 0; site < lattice.sites(); site++) {
+                sites.open(site, flags(site));
+                checkPercolates(site);
+            }
+        } else {
+            bondOpen = null;
+        }
+    }
+
+    // the lattice this system lives on
+    public Lattice lattice() {
+        return lattice;
+    }
+
+    // number of sites (SITE mode) or bond slots (BOND mode) that open accepts
+    public int elements() {
+        return mode == Mode.SITE ? lattice.sites() : lattice.bonds();
+    }
+
+    // opens the given site (SITE mode) or bond (BOND mode) if it is not open
+    // already; bond slots past an edge of the lattice have no bond to open
+    public void open(int element) {
+        if (mode == Mode.SITE) {
+            lattice.validateSite(element);
+            openSite(element);
+        } else {
+            if (element < 0 || element >= bondOpen.length) {
+                throw new IllegalArgumentException("Index out of bounds");
+            }
+            int target = lattice.bondTarget(element);
+            if (target < 0) {
+                throw new IllegalArgumentException("no bond at " + element);
+            }
+            if (!bondOpen[element]) {
+                bondOpen[element] = true;
+                count++;
+                checkPercolates(sites.union(lattice.bondSource(element), target));
+            }
+        }
+    }
+
+    // opens site and joins it to its open neighbours along every dimension
+    private void openSite(int site) {
+        if (sites.isOpen(site)) {
+            return;
+        }
+        sites.open(site, flags(site));
+        count++;
+
+        int root = site;
+        int[] neighbours = this.neighbours;
+        for (int k = 0, degree = lattice.neighbours(site, neighbours); k < degree; k++) {
+            if (sites.isOpen(neighbours[k])) {
+                root = sites.union(site, neighbours[k]);
+            }
+        }
+        checkPercolates(root);
+    }
+
+    private byte flags(int site) {
+        byte flags = 0;
+        if (lattice.isTop(site)) {
+            flags |= TOP;
+        }
+        if (lattice.isBottom(site)) {
+            flags |= BOTTOM;
+        }
+        return flags;
+    }
+
+    private void checkPercolates(int root) {
+        if (sites.has(root, (byte) (TOP | BOTTOM))) {
+            percolates = true;
+        }
+    }
+
+    // is the site (SITE mode) or bond (BOND mode) open?
+    public boolean isOpen(int element) {
+        if (mode == Mode.SITE) {
+            lattice.validateSite(element);
+            return sites.isOpen(element);
+        }
+        if (element < 0 || element >= bondOpen.length) {
+            throw new IllegalArgumentException("Index out of bounds");
+        }
+        return bondOpen[element];
+    }
+
+    // is the site open and connected to the top layer?
+    public boolean isFull(int site) {
+        lattice.validateSite(site);
+        return sites.isOpen(site) && sites.has(sites.find(site), TOP);
+    }
+
+    // returns the number of open sites (SITE mode) or bonds (BOND mode)
+    public int numberOfOpen() {
+        return count;
+    }
+
+    // does the system percolate?
+    public boolean percolates() {
+        return percolates;
+    }
+
+    // fraction of elements open when a trial in shuffled order first percolates
+    private static double trial(Lattice lattice, Mode mode, SplittableRandom random) {
+        LatticePercolation percolation = new LatticePercolation(lattice, mode);
+        int[] order = new int[percolation.elements()];
+        int total = 0;
+        for (int element = 0; element < order.length; element++) {
+            if (mode == Mode.SITE || lattice.bondTarget(element) >= 0) {
+                order[total++] = element;
+            }
+        }
+        int opened = 0;
+        while (!percolation.percolates()) {
+            int j = opened + random.nextInt(total - opened);
+            int element = order[j];
+            order[j] = order[opened];
+            order[opened] = element;
+            percolation.open(element);
+            opened++;
+        }
+        return (double) opened / total;
+    }
+
+    // test client: threshold estimate for the given lattice and mode
+    public static void main(String[] args) {
+        Mode mode = Mode.valueOf(args[0].toUpperCase());
+        Lattice lattice;
+        int next;
+        switch (args[1]) {
+            case "square":
+                lattice = Lattice.square(Integer.parseInt(args[2]));
+                next = 3;
+                break;
+            case "rect":
+                lattice = Lattice.rectangular(Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+                next = 4;
+                break;
+            case "periodic":
+                lattice = Lattice.periodic(Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+                next = 4;
+                break;
+            case "cubic":
+                lattice = Lattice.cubic(Integer.parseInt(args[2]));
+                next = 3;
+                break;
+            default:
+                throw new IllegalArgumentException("unknown lattice " + args[1]);
+        }
+        int trials = Integer.parseInt(args[next]);
+        SplittableRandom root = new SplittableRandom(Long.parseLong(args[next + 1]));
+
+        double[] test = new double[trials];
+        for (int i = 0; i < trials; i++) {
+            test[i] = trial(lattice, mode, root.split());
+        }
+        StdOut.println("mean:  " + StdStats.mean(test));
+        StdOut.println("stddev:  " + StdStats.stddev(test));
+    }
+}
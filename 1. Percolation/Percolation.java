@@ -12,13 +12,18 @@
  **************************************************************************** */
 import edu.princeton.cs.algs4.StdIn;
 import edu.princeton.cs.algs4.StdOut;
-import edu.princeton.cs.algs4.WeightedQuickUnionUF;
+import java.util.Arrays;
 
 public class Percolation {
+    private static final byte TOP = SiteUnionFind.TOP;       // top row
+    private static final byte BOTTOM = SiteUnionFind.BOTTOM; // bottom row
+
     private final int n; // grid length
-    private final WeightedQuickUnionUF grid, altGrid;  // n * n grid + virtual top & bottom
-    private boolean[] open;  // true:open, false:blocked
+    private final SiteUnionFind sites; // union-find over the n * n sites
     private int count = 0; // number of open sites
+    private int largest = 0;  // open sites in the largest cluster
+    private int spanning = 0; // open sites in the largest top-to-bottom cluster
+    private boolean percolates = false;
 
     // creates n-by-n grid, with all sites initially blocked
     public Percolation(int n) {
@@ -26,78 +31,128 @@ public class Percolation {
             throw new IllegalArgumentException("length must be positive");
         }
         this.n = n;
-        grid = new WeightedQuickUnionUF(n * n + 2);
-        altGrid = new WeightedQuickUnionUF(n * n + 1);
-        open = new boolean[n * n +2];
-
-        //The sites are block at first hand
-        for (int i = 1; i < n * n; i++) {
-            open[i] = false;
-        }
-
-        open[0] = true; //virtual top
-        open[n * n + 1] = true; //virtual bottom
+        sites = new SiteUnionFind(n * n);
     }
 
     // opens the site (row, col) if it is not open already
     public void open(int row, int col) {
-        if (row < 1 || row > n || col < 1 || col > n) {
-            throw new IllegalArgumentException("Index out of bounds");
+        validate(row, col);
+        openSite((row - 1) * n + (col - 1));
+    }
+
+    // opens the sites (rows[k], cols[k]) in order after validating them all;
+    // returns the number of opens after which the system first percolates
+    // (0 if it already did, -1 if it still does not), so it percolates after
+    // k opens exactly when k is at least the returned value
+    public int openAll(int[] rows, int[] cols) {
+        if (rows == null || cols == null || rows.length != cols.length) {
+            throw new IllegalArgumentException("rows and cols must have the same length");
+        }
+        for (int k = 0; k < rows.length; k++) {
+            validate(rows[k], cols[k]);
         }
-        //name row,col 0 to N ** 2
-        int index = (row - 1) * n + col;
-        if (!open[index]) {
-            open[index] = true;
-            count++;
+        if (percolates) {
+            for (int k = 0; k < rows.length; k++) {
+                openSite((rows[k] - 1) * n + (cols[k] - 1));
+            }
+            return 0;
         }
+        int first = -1;
+        for (int k = 0; k < rows.length; k++) {
+            openSite((rows[k] - 1) * n + (cols[k] - 1));
+            if (first < 0 && percolates) {
+                first = k + 1;
+            }
+        }
+        return first;
+    }
 
+    // as above, with each site given as its row-major index (row - 1) * n + (col - 1)
+    public int openAll(int[] indices) {
+        if (indices == null) {
+            throw new IllegalArgumentException("indices cannot be null");
+        }
+        for (int index : indices) {
+            if (index < 0 || index >= sites.sites()) {
+                throw new IllegalArgumentException("Index out of bounds");
+            }
+        }
+        if (percolates) {
+            for (int index : indices) {
+                openSite(index);
+            }
+            return 0;
+        }
+        int first = -1;
+        for (int k = 0; k < indices.length; k++) {
+            openSite(indices[k]);
+            if (first < 0 && percolates) {
+                first = k + 1;
+            }
+        }
+        return first;
+    }
+
+    // opens the site with the given index, which must be in bounds
+    private void openSite(int index) {
+        if (sites.isOpen(index)) {
+            return;
+        }
+        int row = index / n;
+        int col = index - row * n;
+        byte flags = 0;
         //connect head and tails
-        if (row == 1) {
-            grid.union(0, index);
-            altGrid.union(0, index);
+        if (row == 0) {
+            flags |= TOP;
         }
-        if (row == n) {
-            grid.union(n * n + 1, index);
+        if (row == n - 1) {
+            flags |= BOTTOM;
         }
+        sites.open(index, flags);
+        count++;
 
         // union judge for 4 directions
+        int root = index;
+        // above
+        if (row != 0 && sites.isOpen(index - n)) {
+            root = sites.union(index, index - n);
+        }
+        // below
+        if (row != n - 1 && sites.isOpen(index + n)) {
+            root = sites.union(index, index + n);
+        }
         // left
-        if (row != 1 && isOpen(row - 1, col)) {
-            grid.union(index, index - n);
-            altGrid.union(index, index - n);
+        if (col != 0 && sites.isOpen(index - 1)) {
+            root = sites.union(index, index - 1);
         }
         // right
-        if (row != n && isOpen(row + 1, col)) {
-            grid.union(index, index + n);
-            altGrid.union(index, index + n);
+        if (col != n - 1 && sites.isOpen(index + 1)) {
+            root = sites.union(index, index + 1);
         }
-        // below
-        if (col != 1 && isOpen(row, col - 1)) {
-            grid.union(index, index - 1);
-            altGrid.union(index, index - 1);
+
+        int size = sites.size(root);
+        if (size > largest) {
+            largest = size;
         }
-        // above
-        if (col != n && isOpen(row, col + 1)) {
-            grid.union(index, index + 1);
-            altGrid.union(index, index + 1);
+        if (sites.has(root, (byte) (TOP | BOTTOM))) {
+            percolates = true;
+            if (size > spanning) {
+                spanning = size;
+            }
         }
     }
 
     // is the site (row, col) open?
     public boolean isOpen(int row, int col) {
-        if (row < 1 || row > n || col < 1 || col > n) {
-            throw new IllegalArgumentException("Index out of bounds");
-        }
-        return open[(row - 1) * n + col];
+        validate(row, col);
+        return sites.isOpen((row - 1) * n + (col - 1));
     }
 
-    // is the site (row, col) full? Connected to the top to check.
+    // is the site (row, col) full? Its component has to touch the top row.
     public boolean isFull(int row, int col) {
-        if (row < 1 || row > n || col < 1 || col > n) {
-            throw new IllegalArgumentException("Index out of bounds");
-        }
-        int index = (row - 1) * n + col;
-        return grid.connected(0, index) && altGrid.connected(0, index);
+        validate(row, col);
+        int index = (row - 1) * n + (col - 1);
+        return sites.isOpen(index) && sites.has(sites.find(index), TOP);
     }
 
     // returns the number of open sites
@@ -107,7 +162,29 @@ public class Percolation {
 
     // does the system percolate?
     public boolean percolates() {
-        return grid.connected(0, n * n + 1);
+        return percolates;
+    }
+
+    // returns the number of clusters of connected open sites
+    public int numberOfClusters() {
+        return sites.components();
+    }
+
+    // returns the number of open sites in the largest cluster
+    public int largestClusterSize() {
+        return largest;
+    }
+
+    // returns the number of open sites in the largest cluster connecting the
+    // top row to the bottom row, 0 if the system does not percolate
+    public int spanningClusterSize() {
+        return spanning;
+    }
+
+    private void validate(int row, int col) {
+        if (row < 1 || row > n || col < 1 || col > n) {
+            throw new IllegalArgumentException("Index out of bounds");
+        }
     }
 
     // test client
@@ -115,11 +192,20 @@ public class Percolation {
 
         int n = StdIn.readInt();
         Percolation percolation = new Percolation(n);
+        int[] sites = new int[16];
+        int size = 0;
         while (!StdIn.isEmpty()) {
             int row = StdIn.readInt();
             int col = StdIn.readInt();
-            percolation.open(row, col);
+            if (row < 1 || row > n || col < 1 || col > n) {
+                throw new IllegalArgumentException("Index out of bounds");
+            }
+            if (size == sites.length) {
+                sites = Arrays.copyOf(sites, 2 * size);
+            }
+            sites[size++] = (row - 1) * n + (col - 1);
         }
+        percolation.openAll(Arrays.copyOf(sites, size));
         StdOut.println("percolation is " + percolation.percolates());
     }
 }
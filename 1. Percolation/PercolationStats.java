@@ -1,10 +1,24 @@
 
 import edu.princeton.cs.algs4.StdRandom;
 import edu.princeton.cs.algs4.StdStats;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
 
 public class PercolationStats {
+    // how a seeded trial picks the sites it opens
+    public enum Sampling {
+        REJECTION, // random (row, col) pairs, skipping sites already open
+        SHUFFLED,  // incremental Fisher-Yates shuffle, one site per step
+        THRESHOLD  // same shuffle, opened in batches that report the threshold
+    }
+
+    private static final double CONFIDENCE_95 = 1.96;
+    private static final int MIN_TRIALS = 30; // before an interval is trusted
+
     private final int trials;
-    private final double[] test;
+    private final double mean;
+    private final double stddev;
 
     // perform independent trials on an n-by-n grid
     public PercolationStats(int n, int trials) {
@@ -13,12 +27,12 @@ public class PercolationStats {
         }
 
         this.trials = trials;
-        test = new double[trials];
-        double openCount = 0;
+        double[] test = new double[trials];
 
         // Create trial instances of new percolation object od size n
-        for (int i=0; i < trials; i++) {
+        for (int i = 0; i < trials; i++) {
             Percolation percolation = new Percolation(n);
+            double openCount = 0;
 
             while (!percolation.percolates()) {
                 int row = StdRandom.uniform(n) + 1;
@@ -31,33 +45,234 @@ public class PercolationStats {
             }
             test[i] = openCount / (n * n);
         }
+        mean = StdStats.mean(test);
+        stddev = StdStats.stddev(test);
+    }
+
+    // perform independent trials on an n-by-n grid, each trial drawing from its
+    // own random stream split off the given seed; with parallel set the trials
+    // are spread over the common fork-join pool. The same seed gives the same
+    // results whether run in parallel or not.
+    public PercolationStats(int n, int trials, long seed, boolean parallel) {
+        this(n, trials, seed, parallel, false);
+    }
+
+    // as above; with shuffled set each trial opens sites in the order of an
+    // incremental Fisher-Yates shuffle of all n * n sites instead of drawing
+    // (row, col) pairs and rejecting the ones already open
+    public PercolationStats(int n, int trials, long seed, boolean parallel,
+                            boolean shuffled) {
+        this(n, trials, seed, parallel, shuffled ? Sampling.SHUFFLED : Sampling.REJECTION);
+    }
+
+    // as above, with the sampling strategy given explicitly
+    public PercolationStats(int n, int trials, long seed, boolean parallel,
+                            Sampling sampling) {
+        if (n <= 0 || trials <= 0) {
+            throw new IllegalArgumentException("length must be positive");
+        }
+        if (sampling == null) {
+            throw new IllegalArgumentException("sampling cannot be null");
+        }
+
+        this.trials = trials;
+        double[] test = new double[trials];
+
+        // split the streams up front so trial i always sees the same stream
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] streams = new SplittableRandom[trials];
+        for (int i = 0; i < trials; i++) {
+            streams[i] = root.split();
+        }
+
+        IntStream range = IntStream.range(0, trials);
+        if (parallel) {
+            range = range.parallel();
+        }
+        range.forEach(i -> test[i] = trial(n, sampling, streams[i]));
+        mean = StdStats.mean(test);
+        stddev = StdStats.stddev(test);
+    }
+
+    // run seeded trials one at a time, keeping a running mean and variance
+    // (Welford) instead of the results, until the 95% confidence interval is
+    // narrower than tolerance or maxTrials have run; trial i sees the same
+    // random stream as in the fixed-count constructors with the same seed
+    public PercolationStats(int n, double tolerance, int maxTrials, long seed,
+                            Sampling sampling) {
+        if (n <= 0 || maxTrials <= 0) {
+            throw new IllegalArgumentException("length must be positive");
+        }
+        if (!(tolerance > 0)) {
+            throw new IllegalArgumentException("tolerance must be positive");
+        }
+        if (sampling == null) {
+            throw new IllegalArgumentException("sampling cannot be null");
+        }
+
+        SplittableRandom root = new SplittableRandom(seed);
+        int count = 0;
+        double runningMean = 0;
+        double sumOfSquares = 0; // of differences from the running mean
+        double width = Double.POSITIVE_INFINITY;
+        while (count < maxTrials && (count < MIN_TRIALS || width >= tolerance)) {
+            double x = trial(n, sampling, root.split());
+            count++;
+            double delta = x - runningMean;
+            runningMean += delta / count;
+            sumOfSquares += delta * (x - runningMean);
+            if (count > 1) {
+                width = 2 * CONFIDENCE_95 * Math.sqrt(sumOfSquares / (count - 1) / count);
+            }
+        }
+        trials = count;
+        mean = runningMean;
+        stddev = count > 1 ? Math.sqrt(sumOfSquares / (count - 1)) : Double.NaN;
+    }
+
+    // summarise trial results computed elsewhere, e.g. by PercolationSweep
+    PercolationStats(double[] test) {
+        if (test == null || test.length == 0) {
+            throw new IllegalArgumentException("no trials");
+        }
+        trials = test.length;
+        mean = StdStats.mean(test);
+        stddev = StdStats.stddev(test);
+    }
+
+    // run one trial with the given sampling strategy and random stream
+    static double trial(int n, Sampling sampling, SplittableRandom random) {
+        switch (sampling) {
+            case SHUFFLED:
+                return shuffledTrial(n, random);
+            case THRESHOLD:
+                return thresholdTrial(n, random);
+            default:
+                return trial(n, random);
+        }
+    }
+
+    // run one trial with the given random stream, return the open fraction
+    private static double trial(int n, SplittableRandom random) {
+        Percolation percolation = new Percolation(n);
+        double openCount = 0;
+
+        while (!percolation.percolates()) {
+            int row = random.nextInt(n) + 1;
+            int col = random.nextInt(n) + 1;
+
+            if (!percolation.isOpen(row, col)) {
+                percolation.open(row, col);
+                openCount++;
+            }
+        }
+        return openCount / (n * n);
+    }
+
+    // run one trial opening sites in shuffled order: step k swaps a random
+    // site from sites[k..] into slot k and opens it, so every random number
+    // opens a site that is still blocked
+    private static double shuffledTrial(int n, SplittableRandom random) {
+        Percolation percolation = new Percolation(n);
+        int[] sites = new int[n * n];
+        for (int i = 0; i < sites.length; i++) {
+            sites[i] = i;
+        }
+
+        int openCount = 0;
+        while (!percolation.percolates()) {
+            int j = openCount + random.nextInt(sites.length - openCount);
+            int site = sites[j];
+            sites[j] = sites[openCount];
+            sites[openCount] = site;
+
+            percolation.open(site / n + 1, site % n + 1);
+            openCount++;
+        }
+        return (double) openCount / (n * n);
+    }
+
+    // run one trial over the same shuffle as shuffledTrial, but hand the sites
+    // to Percolation.openAll a batch at a time: percolation is monotone, so the
+    // first batch that percolates reports the exact open count without a
+    // percolates() check per site. The first batch covers half the grid, well
+    // under the threshold, and later ones are a row long, so at most n - 1
+    // sites past the threshold are opened for nothing.
+    private static double thresholdTrial(int n, SplittableRandom random) {
+        Percolation percolation = new Percolation(n);
+        int[] sites = new int[n * n];
+        for (int i = 0; i < sites.length; i++) {
+            sites[i] = i;
+        }
+
+        int shuffled = 0;
+        int batch = Math.max(1, sites.length / 2);
+        while (true) {
+            int end = Math.min(sites.length, shuffled + batch);
+            for (int k = shuffled; k < end; k++) {
+                int j = k + random.nextInt(sites.length - k);
+                int site = sites[j];
+                sites[j] = sites[k];
+                sites[k] = site;
+            }
+            int first = percolation.openAll(Arrays.copyOfRange(sites, shuffled, end));
+            if (first > 0) {
+                return (double) (shuffled + first) / (n * n);
+            }
+            shuffled = end;
+            batch = n;
+        }
     }
 
     // sample mean of percolation threshold
     public double mean() {
-        return StdStats.mean(test);
+        return mean;
     }
 
     // sample standard deviation of percolation threshold
     public double stddev() {
-        return StdStats.stddev(test);
+        return stddev;
+    }
+
+    // number of trials run
+    public int trials() {
+        return trials;
     }
 
     // low endpoint of 95% confidence interval
     public double confidenceLo() {
-        return mean() - (1.96 * stddev()) / Math.sqrt(trials);
+        return mean - (CONFIDENCE_95 * stddev) / Math.sqrt(trials);
     }
 
     // high endpoint of 95% confidence interval
     public double confidenceHi() {
-        return mean() + (1.96 * stddev()) / Math.sqrt(trials);
+        return mean + (CONFIDENCE_95 * stddev) / Math.sqrt(trials);
     }
 
-    // test client (see below)
+    // test client:
+    //   n trials                                           StdRandom trials
+    //   n trials seed [parallel [sampling]]                seeded trials
+    //   n -tolerance tolerance maxTrials seed [sampling]   stop once the interval is narrow
     public static void main(String[] args) {
         int n = Integer.parseInt(args[0]);
-        int trails = Integer.parseInt(args[1]);
-        PercolationStats percolation = new PercolationStats(n,trails);
+        PercolationStats percolation;
+        if (args[1].equals("-tolerance")) {
+            double tolerance = Double.parseDouble(args[2]);
+            int maxTrials = Integer.parseInt(args[3]);
+            long seed = Long.parseLong(args[4]);
+            Sampling sampling = args.length > 5 ? Sampling.valueOf(args[5]) : Sampling.REJECTION;
+            percolation = new PercolationStats(n, tolerance, maxTrials, seed, sampling);
+            System.out.println("trials:  " + percolation.trials());
+        } else if (args.length > 2) {
+            int trails = Integer.parseInt(args[1]);
+            long seed = Long.parseLong(args[2]);
+            boolean parallel = args.length > 3 && Boolean.parseBoolean(args[3]);
+            Sampling sampling = args.length > 4 ? Sampling.valueOf(args[4]) : Sampling.REJECTION;
+            percolation = new PercolationStats(n, trails, seed, parallel, sampling);
+        } else {
+            int trails = Integer.parseInt(args[1]);
+            percolation = new PercolationStats(n, trails);
+        }
         System.out.println("mean:  " + percolation.mean());
         System.out.println("stddev:  " + percolation.stddev());
         System.out.println("confidence Low:  "
@@ -0,0 +1,102 @@
+/* *****************************************************************************
+ *  Topic:        Threshold sweep over many grid sizes.
+ *                Runs the trials for every requested grid size on one shared
+ *                work-stealing pool, largest grids first so no long trial is
+ *                left running alone at the end, and prints a CSV line for each
+ *                size as soon as its last trial finishes. The seed is used for
+ *                every size, so each line matches PercolationStats(n, trials,
+ *                seed, parallel, sampling) for that size.
+ *  Usage:        java PercolationSweep seed REJECTION|SHUFFLED|THRESHOLD
+ *                                      n:trials [n:trials ...]
+ *  @author:      Ying Chu
+ **************************************************************************** */
+import edu.princeton.cs.algs4.StdOut;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PercolationSweep {
+    private final PercolationStats.Sampling sampling;
+    private final long seed;
+    private final int parallelism;
+
+    // sweep with the given sampling and seed on a pool with the given parallelism
+    public PercolationSweep(PercolationStats.Sampling sampling, long seed, int parallelism) {
+        if (sampling == null) {
+            throw new IllegalArgumentException("sampling cannot be null");
+        }
+        this.sampling = sampling;
+        this.seed = seed;
+        this.parallelism = parallelism;
+    }
+
+    // runs trials[i] trials on an sizes[i]-by-sizes[i] grid for every i, printing
+    // "n,trials,mean,stddev,confidenceLo,confidenceHi" as each size completes;
+    // returns once every size is done
+    public void run(int[] sizes, int[] trials) {
+        if (sizes == null || trials == null || sizes.length != trials.length) {
+            throw new IllegalArgumentException("one trial count per size");
+        }
+        for (int i = 0; i < sizes.length; i++) {
+            if (sizes[i] <= 0 || trials[i] <= 0) {
+                throw new IllegalArgumentException("length must be positive");
+            }
+        }
+
+        // largest grid first: the pool takes external submissions in order
+        Integer[] order = new Integer[sizes.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(sizes[b], sizes[a]));
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        StdOut.println("n,trials,mean,stddev,confidenceLo,confidenceHi");
+        for (int i : order) {
+            int n = sizes[i];
+            double[] test = new double[trials[i]];
+            AtomicInteger remaining = new AtomicInteger(test.length);
+
+            // same streams, in the same order, as the seeded PercolationStats
+            SplittableRandom root = new SplittableRandom(seed);
+            for (int t = 0; t < test.length; t++) {
+                int trial = t;
+                SplittableRandom random = root.split();
+                pool.execute(() -> {
+                    test[trial] = PercolationStats.trial(n, sampling, random);
+                    if (remaining.decrementAndGet() == 0) {
+                        report(n, new PercolationStats(test));
+                    }
+                });
+            }
+        }
+        pool.shutdown();
+        try {
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static synchronized void report(int n, PercolationStats stats) {
+        StdOut.println(n + "," + stats.trials() + "," + stats.mean() + "," + stats.stddev()
+                               + "," + stats.confidenceLo() + "," + stats.confidenceHi());
+    }
+
+    // test client
+    public static void main(String[] args) {
+        long seed = Long.parseLong(args[0]);
+        PercolationStats.Sampling sampling = PercolationStats.Sampling.valueOf(args[1]);
+        int[] sizes = new int[args.length - 2];
+        int[] trials = new int[args.length - 2];
+        for (int i = 2; i < args.length; i++) {
+            String[] pair = args[i].split(":");
+            sizes[i - 2] = Integer.parseInt(pair[0]);
+            trials[i - 2] = Integer.parseInt(pair[1]);
+        }
+        new PercolationSweep(sampling, seed, Runtime.getRuntime().availableProcessors())
+                .run(sizes, trials);
+    }
+}
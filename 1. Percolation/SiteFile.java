@@ -0,0 +1,109 @@
+/* *****************************************************************************
+ *  Topic:        Binary site files for Percolation.
+ *                A site file is the header magic "PERC" and the grid length n,
+ *                followed by one row-major site index (row - 1) * n + (col - 1)
+ *                per open, all as little-endian 32-bit ints. Reading maps the
+ *                file and hands the indices to Percolation.openAll in chunks,
+ *                with no per-token parsing.
+ *  Usage:        java SiteFile convert out.bin < sites.txt
+ *                java SiteFile run sites.bin
+ *  @author:      Ying Chu
+ **************************************************************************** */
+import edu.princeton.cs.algs4.StdIn;
+import edu.princeton.cs.algs4.StdOut;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+public class SiteFile {
+    private static final int MAGIC = 0x43524550; // "PERC" read little-endian
+    private static final int HEADER = 8;         // magic + n
+    private static final long WINDOW = 1L << 30; // bytes mapped at a time
+    private static final int CHUNK = 1 << 16;    // indices per openAll call
+
+    private SiteFile() {
+    }
+
+    // reads the site file at path and returns the percolation system after
+    // opening every listed site
+    public static Percolation read(String path) {
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER || (size - HEADER) % Integer.BYTES != 0) {
+                throw new IllegalArgumentException("not a site file: " + path);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER)
+                                       .order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt() != MAGIC) {
+                throw new IllegalArgumentException("not a site file: " + path);
+            }
+            Percolation percolation = new Percolation(header.getInt());
+
+            int[] chunk = new int[CHUNK];
+            for (long offset = HEADER; offset < size; offset += WINDOW) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, offset,
+                                                      Math.min(WINDOW, size - offset));
+                IntBuffer sites = window.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+                while (sites.hasRemaining()) {
+                    int length = Math.min(CHUNK, sites.remaining());
+                    if (length < CHUNK) {
+                        chunk = new int[length];
+                    }
+                    sites.get(chunk, 0, length);
+                    percolation.openAll(chunk);
+                }
+            }
+            return percolation;
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot read " + path, e);
+        }
+    }
+
+    // converts the text format read by Percolation.main (n, then row col
+    // pairs) from standard input into a site file at path
+    public static void convert(String path) {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(path), 1 << 16)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            int n = StdIn.readInt();
+            if (n <= 0) {
+                throw new IllegalArgumentException("length must be positive");
+            }
+            buffer.putInt(MAGIC).putInt(n);
+            while (!StdIn.isEmpty()) {
+                int row = StdIn.readInt();
+                int col = StdIn.readInt();
+                if (row < 1 || row > n || col < 1 || col > n) {
+                    throw new IllegalArgumentException("Index out of bounds");
+                }
+                if (!buffer.hasRemaining()) {
+                    out.write(buffer.array(), 0, buffer.position());
+                    buffer.clear();
+                }
+                buffer.putInt((row - 1) * n + (col - 1));
+            }
+            out.write(buffer.array(), 0, buffer.position());
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot write " + path, e);
+        }
+    }
+
+    // test client
+    public static void main(String[] args) {
+        if (args.length == 2 && args[0].equals("convert")) {
+            convert(args[1]);
+        } else if (args.length == 2 && args[0].equals("run")) {
+            StdOut.println("percolation is " + read(args[1]).percolates());
+        } else {
+            throw new IllegalArgumentException("usage: SiteFile convert|run <file>");
+        }
+    }
+}
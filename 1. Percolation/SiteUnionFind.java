@@ -0,0 +1,94 @@
+/* *****************************************************************************
+ *  Topic:        Union-find over the sites of a percolation system.
+ *                Weighted quick-union with path halving, shared by Percolation
+ *                and LatticePercolation and packed into two arrays: parent[i]
+ *                >= 0 is the parent of site i, parent[i] < 0 marks a root
+ *                whose component has -parent[i] sites, and status[i] holds the
+ *                OPEN bit of site i plus, on roots only, whether the component
+ *                touches the top or the bottom. Five bytes per site.
+ *  @author:      Ying Chu
+ **************************************************************************** */
+import java.util.Arrays;
+
+final class SiteUnionFind {
+    // status bits, kept up to date on component roots only (OPEN is per site)
+    static final byte OPEN = 1;
+    static final byte TOP = 2;     // component touches the top
+    static final byte BOTTOM = 4;  // component touches the bottom
+
+    private final int[] parent;
+    private final byte[] status;
+    private int components = 0; // number of components of open sites
+
+    // creates sites blocked sites, each a component of its own
+    SiteUnionFind(int sites) {
+        parent = new int[sites];
+        status = new byte[sites];
+        Arrays.fill(parent, -1);
+    }
+
+    // number of sites
+    int sites() {
+        return parent.length;
+    }
+
+    // is site open?
+    boolean isOpen(int site) {
+        return (status[site] & OPEN) != 0;
+    }
+
+    // opens a blocked site as a component of its own with the given TOP and
+    // BOTTOM bits
+    void open(int site, byte flags) {
+        status[site] = (byte) (flags | OPEN);
+        components++;
+    }
+
+    // number of components of open sites
+    int components() {
+        return components;
+    }
+
+    // number of sites in the component with the given root
+    int size(int root) {
+        return -parent[root];
+    }
+
+    // does the component with the given root have all the given status bits?
+    boolean has(int root, byte bits) {
+        return (status[root] & bits) == bits;
+    }
+
+    // root of site p, halving the path on the way up
+    int find(int p) {
+        while (parent[p] >= 0) {
+            int grand = parent[parent[p]];
+            if (grand >= 0) {
+                parent[p] = grand;
+            }
+            p = parent[p];
+        }
+        return p;
+    }
+
+    // merge the components of open sites p and q by size, or-ing their status
+    // bits; returns the root of the merged component
+    int union(int p, int q) {
+        int rootP = find(p);
+        int rootQ = find(q);
+        if (rootP == rootQ) {
+            return rootP;
+        }
+        // sizes are stored negated, so the more negative root is the bigger one
+        if (parent[rootP] > parent[rootQ]) {
+            int swap = rootP;
+            rootP = rootQ;
+            rootQ = swap;
+        }
+        parent[rootP] += parent[rootQ];
+        parent[rootQ] = rootP;
+        status[rootP] |= status[rootQ];
+        components--;
+        return rootP;
+    }
+}
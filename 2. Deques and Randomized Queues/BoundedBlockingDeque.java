@@ -0,0 +1,285 @@
+/* *****************************************************************************
+ *  Topic:     Bounded blocking deque.
+ *             A deque with a fixed capacity for producer/consumer pipelines:
+ *             put waits while the deque is full and take waits while it is
+ *             empty, so a fast producer is held back instead of growing the
+ *             deque without limit, and a consumer sleeps instead of spinning on
+ *             isEmpty(). One lock guards a circular array, with one condition
+ *             for each thing a thread can wait for.
+ *  @author:   Ying Chu
+ **************************************************************************** */
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import edu.princeton.cs.algs4.StdOut;
+
+public class BoundedBlockingDeque<Item> {
+    private final Item[] items;
+    private int head = 0;  // index of the first item
+    private int size = 0;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    // construct an empty deque holding at most capacity items
+    public BoundedBlockingDeque(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        items = (Item[]) new Object[capacity];
+    }
+
+    // is the deque empty?
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // return the number of items on the deque
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // number of items that can be added before the deque is full
+    public int remainingCapacity() {
+        lock.lock();
+        try {
+            return items.length - size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // add the item to the front, waiting while the deque is full
+    public void putFirst(Item item) throws InterruptedException {
+        check(item);
+        lock.lockInterruptibly();
+        try {
+            while (size == items.length) {
+                notFull.await();
+            }
+            linkFirst(item);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // add the item to the back, waiting while the deque is full
+    public void putLast(Item item) throws InterruptedException {
+        check(item);
+        lock.lockInterruptibly();
+        try {
+            while (size == items.length) {
+                notFull.await();
+            }
+            linkLast(item);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // add the item to the front, waiting up to the timeout for room;
+    // returns false if there was still no room
+    public boolean putFirst(Item item, long timeout, TimeUnit unit) throws InterruptedException {
+        check(item);
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (size == items.length) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            linkFirst(item);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // add the item to the back, waiting up to the timeout for room;
+    // returns false if there was still no room
+    public boolean putLast(Item item, long timeout, TimeUnit unit) throws InterruptedException {
+        check(item);
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (size == items.length) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            linkLast(item);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // remove and return the item from the front, waiting while the deque is empty
+    public Item takeFirst() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                notEmpty.await();
+            }
+            return unlinkFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // remove and return the item from the back, waiting while the deque is empty
+    public Item takeLast() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                notEmpty.await();
+            }
+            return unlinkLast();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // remove and return the item from the front, waiting up to the timeout for
+    // one; returns null if the deque was still empty
+    public Item takeFirst(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return unlinkFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // remove and return the item from the back, waiting up to the timeout for
+    // one; returns null if the deque was still empty
+    public Item takeLast(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return unlinkLast();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // remove up to max items from the front without waiting, adding them to
+    // target in order; returns the number of items moved. Each item is removed
+    // only once target has accepted it, so if target throws, the items it did
+    // not take are still on the deque.
+    public int drainTo(Collection<? super Item> target, int max) {
+        if (target == null) {
+            throw new IllegalArgumentException("Target cannot be null");
+        }
+        lock.lock();
+        try {
+            int limit = Math.max(0, Math.min(max, size));
+            int moved = 0;
+            try {
+                while (moved < limit) {
+                    target.add(items[head]);
+                    items[head] = null;
+                    head = (head + 1) % items.length;
+                    size--;
+                    moved++;
+                }
+            } finally {
+                if (moved > 0) {
+                    notFull.signalAll();
+                }
+            }
+            return moved;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void check(Item item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Item cannot be null");
+        }
+    }
+
+    // the four below are called with the lock held and a slot or item available
+    private void linkFirst(Item item) {
+        head = (head - 1 + items.length) % items.length;
+        items[head] = item;
+        size++;
+        notEmpty.signal();
+    }
+
+    private void linkLast(Item item) {
+        items[(head + size) % items.length] = item;
+        size++;
+        notEmpty.signal();
+    }
+
+    private Item unlinkFirst() {
+        Item item = items[head];
+        items[head] = null;
+        head = (head + 1) % items.length;
+        size--;
+        notFull.signal();
+        return item;
+    }
+
+    private Item unlinkLast() {
+        int tail = (head + size - 1) % items.length;
+        Item item = items[tail];
+        items[tail] = null;
+        size--;
+        notFull.signal();
+        return item;
+    }
+
+    // unit testing: a fast producer held back by a slow consumer
+    public static void main(String[] args) throws InterruptedException {
+        BoundedBlockingDeque<Integer> deque = new BoundedBlockingDeque<Integer>(4);
+        Thread producer = new Thread(() -> {
+            try {
+                for (int i = 0; i < 20; i++) {
+                    deque.putLast(i);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+
+        int max = 0;
+        for (int i = 0; i < 20; i++) {
+            max = Math.max(max, deque.size());
+            if (deque.takeFirst() != i) {
+                throw new IllegalStateException("out of order");
+            }
+            Thread.sleep(1);
+        }
+        producer.join();
+        StdOut.println("Largest size seen: " + max);
+        StdOut.println("Timed take on empty: " + deque.takeFirst(10, TimeUnit.MILLISECONDS));
+    }
+}
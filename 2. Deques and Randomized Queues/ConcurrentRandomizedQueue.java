@@ -0,0 +1,221 @@
+/* *****************************************************************************
+ *  Topic:    Concurrent randomized queue.
+ *            A randomized queue shared by many threads. Items are spread over
+ *            shards, each a RandomizedQueue with its own lock and generator;
+ *            a thread enqueues to its home shard, so producers on different
+ *            cores rarely meet. Dequeue picks a shard with probability
+ *            proportional to its size and then a uniform item inside it,
+ *            which is a uniform pick overall as long as the sizes it read are
+ *            still current. The shard is picked by rejection: a uniform shard
+ *            is kept with probability size / bound, where the bound is at
+ *            least the largest shard size, so a dequeue reads a single size
+ *            while the shards are about equally full. After a few rejections
+ *            it falls back to walking all the sizes, which also tightens the
+ *            bound. If the chosen shard has been emptied meanwhile, it steals
+ *            from the others. Each shard is padded to its own cache lines, so
+ *            the size one thread writes does not slow another's reads.
+ *  @author:  Ying Chu
+ **************************************************************************** */
+import edu.princeton.cs.algs4.StdOut;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ConcurrentRandomizedQueue<Item> {
+    private final Shard<Item>[] shards;
+    private final int mask;
+    // at least the largest shard size, give or take enqueues in flight; raised
+    // to a power of two so that a growing queue seldom writes it
+    private volatile int maxSize = 0;
+
+    // uniform shards tried before walking all the sizes
+    private static final int MAX_REJECTIONS = 4;
+
+    // superclass fields are laid out first, so the padding on either side
+    // keeps a shard's lock word and size off its neighbours' cache lines
+    private static class ShardPadding {
+        long p01, p02, p03, p04, p05, p06, p07;
+    }
+
+    private static class ShardFields<Item> extends ShardPadding {
+        final RandomizedQueue<Item> queue;
+        volatile int size; // written under the shard lock, read without
+
+        ShardFields(long seed) {
+            queue = new RandomizedQueue<Item>(new SplittableRandom(seed));
+        }
+    }
+
+    private static final class Shard<Item> extends ShardFields<Item> {
+        long q01, q02, q03, q04, q05, q06, q07;
+
+        Shard(long seed) {
+            super(seed);
+        }
+    }
+
+    // construct an empty queue with a shard per available processor
+    public ConcurrentRandomizedQueue() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    // construct an empty queue with at least the given number of shards
+    public ConcurrentRandomizedQueue(int shardCount) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("shard count must be positive");
+        }
+        int length = Integer.highestOneBit(shardCount);
+        if (length < shardCount) {
+            length *= 2;
+        }
+        shards = (Shard<Item>[]) new Shard[length];
+        SplittableRandom seeds = new SplittableRandom();
+        for (int i = 0; i < length; i++) {
+            shards[i] = new Shard<Item>(seeds.nextLong());
+        }
+        mask = length - 1;
+    }
+
+    // is the queue empty? An estimate while other threads are changing it.
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // number of items; an estimate while other threads are changing it
+    public int size() {
+        int total = 0;
+        for (Shard<Item> shard : shards) {
+            total += shard.size;
+        }
+        return total;
+    }
+
+    // add the item to the calling thread's home shard
+    public void enqueue(Item item) {
+        if (item == null) {
+            throw new NullPointerException();
+        }
+        Shard<Item> shard = shards[home()];
+        int size;
+        synchronized (shard) {
+            shard.queue.enqueue(item);
+            size = shard.queue.size();
+            shard.size = size;
+        }
+        if (size > maxSize) {
+            maxSize = size >= 1 << 30 ? Integer.MAX_VALUE : Integer.highestOneBit(size) << 1;
+        }
+    }
+
+    // remove and return a random item
+    public Item dequeue() {
+        int start = pick();
+        for (int i = 0; i <= mask; i++) {
+            Item item = poll(shards[(start + i) & mask]);
+            if (item != null) {
+                return item;
+            }
+        }
+        throw new NoSuchElementException("The queue is empty");
+    }
+
+    // shard chosen with probability proportional to its size
+    private int pick() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int bound = maxSize;
+        if (bound > 0) {
+            for (int attempt = 0; attempt < MAX_REJECTIONS; attempt++) {
+                int i = random.nextInt() & mask;
+                if (random.nextInt(bound) < shards[i].size) {
+                    return i;
+                }
+            }
+        }
+        return walk(random);
+    }
+
+    // the same choice by walking all the sizes; also resets the bound to the
+    // largest size seen, or picks a uniform shard when they all read as empty
+    private int walk(ThreadLocalRandom random) {
+        int total = 0;
+        int largest = 0;
+        for (Shard<Item> shard : shards) {
+            int size = shard.size;
+            total += size;
+            largest = Math.max(largest, size);
+        }
+        maxSize = largest;
+        if (total == 0) {
+            return random.nextInt(shards.length);
+        }
+        int target = random.nextInt(total);
+        for (int i = 0; i < shards.length; i++) {
+            target -= shards[i].size;
+            if (target < 0) {
+                return i;
+            }
+        }
+        // sizes changed while walking; any shard will do
+        return random.nextInt(shards.length);
+    }
+
+    // remove and return a random item of the shard, or null if it is empty
+    private Item poll(Shard<Item> shard) {
+        if (shard.size == 0) {
+            return null;
+        }
+        synchronized (shard) {
+            if (shard.queue.isEmpty()) {
+                return null;
+            }
+            Item item = shard.queue.dequeue();
+            shard.size = shard.queue.size();
+            return item;
+        }
+    }
+
+    private int home() {
+        long id = Thread.currentThread().getId();
+        int h = (int) (id * 0x9E3779B97F4A7C15L >>> 32);
+        return h & mask;
+    }
+
+    // unit testing: four producers and four consumers share one queue
+    public static void main(String[] args) throws InterruptedException {
+        final int perThread = 250000;
+        ConcurrentRandomizedQueue<Integer> rq = new ConcurrentRandomizedQueue<Integer>();
+        AtomicLong sum = new AtomicLong();
+        AtomicLong taken = new AtomicLong();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < 4; t++) {
+            final int base = t * perThread;
+            threads[t] = new Thread(() -> {
+                for (int i = 1; i <= perThread; i++) {
+                    rq.enqueue(base + i);
+                }
+            });
+        }
+        for (int t = 4; t < 8; t++) {
+            threads[t] = new Thread(() -> {
+                while (taken.get() < 4L * perThread) {
+                    try {
+                        sum.addAndGet(rq.dequeue());
+                        taken.incrementAndGet();
+                    } catch (NoSuchElementException e) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long n = 4L * perThread;
+        StdOut.println("Items taken: " + taken.get());
+        StdOut.println("Sum matches: " + (sum.get() == n * (n + 1) / 2));
+    }
+}
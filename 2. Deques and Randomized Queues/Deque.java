@@ -6,6 +6,7 @@
  *  @author:   Ying Chu
  **************************************************************************** */
 
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import edu.princeton.cs.algs4.StdOut;
@@ -14,6 +15,7 @@ public class Deque<Item> implements Iterable<Item> {
     private Node first = null;
     private Node last = null;
     private int capacity = 0;
+    private final QueueStats stats = QueueStats.create();
 
     private class Node {
         Item item;
@@ -50,6 +52,10 @@ public class Deque<Item> implements Iterable<Item> {
             oldfirst.previous = first;
         }
         capacity++;
+        if (QueueStats.ENABLED) {
+            stats.nodes(1);
+            stats.operations(1, capacity);
+        }
     }
 
 
@@ -70,6 +76,103 @@ public class Deque<Item> implements Iterable<Item> {
             last.previous = oldLast;
         }
         capacity++;
+        if (QueueStats.ENABLED) {
+            stats.nodes(1);
+            stats.operations(1, capacity);
+        }
+    }
+
+    // add the items to the front, keeping their order: items[0] becomes first
+    public void addAllFirst(Item[] items) {
+        if (items == null) {
+            throw new IllegalArgumentException("Items cannot be null");
+        }
+        splice(items, true);
+    }
+
+    // add the items to the front in iteration order
+    public void addAllFirst(Collection<? extends Item> items) {
+        if (items == null) {
+            throw new IllegalArgumentException("Items cannot be null");
+        }
+        splice((Item[]) items.toArray(), true);
+    }
+
+    // add the items to the back, keeping their order
+    public void addAllLast(Item[] items) {
+        if (items == null) {
+            throw new IllegalArgumentException("Items cannot be null");
+        }
+        splice(items, false);
+    }
+
+    // add the items to the back in iteration order
+    public void addAllLast(Collection<? extends Item> items) {
+        if (items == null) {
+            throw new IllegalArgumentException("Items cannot be null");
+        }
+        splice((Item[]) items.toArray(), false);
+    }
+
+    // remove up to max items from the front, adding them to target in order;
+    // returns the number of items moved. Each item is removed only once target
+    // has accepted it, so if target throws, the rest stay on the deque.
+    public int drainTo(Collection<? super Item> target, int max) {
+        if (target == null) {
+            throw new IllegalArgumentException("Target cannot be null");
+        }
+        int moved = 0;
+        while (moved < max && !isEmpty()) {
+            target.add(first.item);
+            removeFirst();
+            moved++;
+        }
+        return moved;
+    }
+
+    // link the items into a detached chain and splice it onto the front or
+    // back in one step; all items are checked first, so a null item leaves
+    // the deque unchanged
+    private void splice(Item[] items, boolean front) {
+        for (Item item : items) {
+            if (item == null) {
+                throw new IllegalArgumentException("Item cannot be null");
+            }
+        }
+        if (items.length == 0) {
+            return;
+        }
+        Node head = null;
+        Node tail = null;
+        for (Item item : items) {
+            Node node = new Node();
+            node.item = item;
+            if (head == null) {
+                head = node;
+            } else {
+                tail.next = node;
+                node.previous = tail;
+            }
+            tail = node;
+        }
+
+        if (capacity == 0) {
+            first = head;
+            last = tail;
+        } else if (front) {
+            tail.next = first;
+            first.previous = tail;
+            first = head;
+        } else {
+            last.next = head;
+            head.previous = last;
+            last = tail;
+        }
+        capacity += items.length;
+        if (QueueStats.ENABLED) {
+            stats.nodes(items.length);
+            stats.operations(items.length, capacity);
+        }
     }
 
     // remove and return the item from the front
@@ -78,14 +181,20 @@ public class Deque<Item> implements Iterable<Item> {
             throw new java.util.NoSuchElementException("The deque is empty");
         }
         Item item = first.item;
+        first.item = null; // avoid loitering
         if (capacity == 1) {
             first = null;
             last = null;
         } else {
+            Node oldFirst = first;
             first = first.next;
             first.previous = null;
+            oldFirst.next = null;
         }
         capacity--;
+        if (QueueStats.ENABLED) {
+            stats.operations(1, capacity);
+        }
         return item;
 
     }
@@ -96,16 +205,27 @@ public class Deque<Item> implements Iterable<Item> {
             throw new java.util.NoSuchElementException("The deque is empty");
         }
         Item item = last.item;
+        last.item = null; // avoid loitering
         if (capacity == 1) {
             last = null;
             first = null;
         } else {
+            Node oldLast = last;
             last = last.previous;
             last.next = null;
+            oldLast.previous = null;
         }
         capacity--;
+        if (QueueStats.ENABLED) {
+            stats.operations(1, capacity);
+        }
         return item;
     }
+    // operation and allocation counts; all zero unless -Dqueue.metrics=true
+    public QueueStats stats() {
+        return stats;
+    }
+
     // return an iterator over items in order from front to back
     public Iterator<Item> iterator() {
             return new ListIterator();
@@ -0,0 +1,135 @@
+/* *****************************************************************************
+ *  Topic:     Deque of doubles.
+ *             RingDeque specialised to double: the values sit unboxed in a
+ *             power-of-two circular double array, and the iterator hands them out
+ *             through nextDouble(), so neither adding, removing nor iterating
+ *             allocates per item.
+ *  @author:   Ying Chu
+ **************************************************************************** */
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import edu.princeton.cs.algs4.StdOut;
+
+public class DoubleDeque {
+    private static final int MIN_CAPACITY = 8;
+
+    private double[] items;
+    private int head = 0;  // index of the first item
+    private int size = 0;
+
+    // construct an empty deque
+    public DoubleDeque() {
+        items = new double[MIN_CAPACITY];
+    }
+
+    // is the deque empty?
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // return the number of items on the deque
+    public int size() {
+        return size;
+    }
+
+    // add the item to the front
+    public void addFirst(double item) {
+        if (size == items.length) {
+            resize(items.length * 2);
+        }
+        head = (head - 1) & (items.length - 1);
+        items[head] = item;
+        size++;
+    }
+
+    // add the item to the back
+    public void addLast(double item) {
+        if (size == items.length) {
+            resize(items.length * 2);
+        }
+        items[(head + size) & (items.length - 1)] = item;
+        size++;
+    }
+
+    // remove and return the item from the front
+    public double removeFirst() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("The deque is empty");
+        }
+        double item = items[head];
+        head = (head + 1) & (items.length - 1);
+        size--;
+        shrink();
+        return item;
+    }
+
+    // remove and return the item from the back
+    public double removeLast() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("The deque is empty");
+        }
+        double item = items[(head + size - 1) & (items.length - 1)];
+        size--;
+        shrink();
+        return item;
+    }
+
+    private void shrink() {
+        if (items.length > MIN_CAPACITY && size == items.length / 4) {
+            resize(items.length / 2);
+        }
+    }
+
+    // move the items to a new array of the given power-of-two length, unwrapped
+    private void resize(int capacity) {
+        double[] copy = new double[capacity];
+        int firstPart = Math.min(size, items.length - head);
+        System.arraycopy(items, head, copy, 0, firstPart);
+        System.arraycopy(items, 0, copy, firstPart, size - firstPart);
+        items = copy;
+        head = 0;
+    }
+
+    // return an iterator over items in order from front to back
+    public PrimitiveIterator.OfDouble iterator() {
+        return new ArrayIterator();
+    }
+
+    private class ArrayIterator implements PrimitiveIterator.OfDouble {
+        private int i = 0;
+
+        public boolean hasNext() {
+            return i < size;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        public double nextDouble() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return items[(head + i++) & (items.length - 1)];
+        }
+    }
+
+    // unit testing
+    public static void main(String[] args) {
+        DoubleDeque deque = new DoubleDeque();
+
+        deque.addFirst(1.5);
+        deque.addFirst(2.5);
+        deque.addLast(3.5);
+        deque.removeFirst();
+        deque.removeLast();
+        deque.addLast(4.5);
+        StdOut.println("Is the deque empty: " + deque.isEmpty());
+        StdOut.println("Size of the deque: " + deque.size());
+        PrimitiveIterator.OfDouble iterator = deque.iterator();
+        while (iterator.hasNext()) {
+            StdOut.println(iterator.nextDouble());
+        }
+    }
+}
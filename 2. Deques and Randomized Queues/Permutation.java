@@ -13,10 +13,12 @@ import edu.princeton.cs.algs4.StdOut;
 public class Permutation {
     public static void main(String[] args) {
         int k = Integer.parseInt(args[0]);
-        RandomizedQueue<String> rq = new RandomizedQueue();
+        // keep only k strings in memory, however long the input is
+        ReservoirSampler<String> sampler = new ReservoirSampler<String>(k);
         while(!StdIn.isEmpty()) {
-            rq.enqueue(StdIn.readString());
+            sampler.offer(StdIn.readString());
         }
+        RandomizedQueue<String> rq = sampler.sample();
         for(int i = 0; i < k; i++) StdOut.println(rq.dequeue());
     }
 }
\ No newline at end of file
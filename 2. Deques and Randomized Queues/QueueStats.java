@@ -0,0 +1,91 @@
+/* *****************************************************************************
+ *  Topic:     Queue metrics.
+ *             Operation, resize, peak-size and allocation counts for Deque and
+ *             RandomizedQueue. Off unless the JVM is started with
+ *             -Dqueue.metrics=true; the switch is a static final field, so
+ *             when it is off the JIT folds every counting branch away and
+ *             stats() returns a shared instance that stays at zero. Counters
+ *             are plain fields, like the queues they belong to: not
+ *             thread-safe.
+ *  @author:   Ying Chu
+ **************************************************************************** */
+
+public final class QueueStats {
+    static final boolean ENABLED = Boolean.getBoolean("queue.metrics");
+
+    // bytes per copied reference, assuming compressed references
+    private static final int REFERENCE_BYTES = 4;
+
+    private static final QueueStats DISABLED = new QueueStats();
+
+    private long operations;
+    private long resizes;
+    private long elementsCopied;
+    private long nodesAllocated;
+    private int peakSize;
+
+    private QueueStats() {
+    }
+
+    // a fresh counter set, or the shared all-zero one when metrics are off
+    static QueueStats create() {
+        return ENABLED ? new QueueStats() : DISABLED;
+    }
+
+    // are metrics being collected in this JVM?
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    // adds, removes and samples
+    public long operations() {
+        return operations;
+    }
+
+    // array resizes (RandomizedQueue)
+    public long resizes() {
+        return resizes;
+    }
+
+    // elements copied by resizes
+    public long elementsCopied() {
+        return elementsCopied;
+    }
+
+    // bytes copied by resizes
+    public long bytesCopied() {
+        return elementsCopied * REFERENCE_BYTES;
+    }
+
+    // nodes allocated (Deque)
+    public long nodesAllocated() {
+        return nodesAllocated;
+    }
+
+    // largest number of items held at once
+    public int peakSize() {
+        return peakSize;
+    }
+
+    void operations(int count, int size) {
+        operations += count;
+        if (size > peakSize) {
+            peakSize = size;
+        }
+    }
+
+    void resized(int copied) {
+        resizes++;
+        elementsCopied += copied;
+    }
+
+    void nodes(int count) {
+        nodesAllocated += count;
+    }
+
+    public String toString() {
+        return "operations=" + operations + ", resizes=" + resizes
+                + ", bytesCopied=" + bytesCopied() + ", nodesAllocated=" + nodesAllocated
+                + ", peakSize=" + peakSize;
+    }
+}
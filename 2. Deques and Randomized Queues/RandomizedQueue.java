@@ -7,17 +7,86 @@
  **************************************************************************** */
 import edu.princeton.cs.algs4.StdOut;
 import edu.princeton.cs.algs4.StdRandom;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 public class RandomizedQueue<Item> implements Iterable<Item> {
+    private static final int MIN_CAPACITY = 2;
+    private static final double DEFAULT_GROWTH = 2.0;
+
     private Item[] queue;
     private int numOfItems;
+    private final RandomGenerator generator; // null: use the shared StdRandom
+    // the array grows by this factor when full, and shrinks by it when no
+    // more than 1 / growthFactor^2 of it is in use, but not below minCapacity
+    private final double growthFactor;
+    private final int minCapacity;
+    private final QueueStats stats = QueueStats.create();
 
     // construct an empty randomized queue
     public RandomizedQueue(){
-        queue = (Item[]) new Object[2];
+        this(MIN_CAPACITY, DEFAULT_GROWTH, null);
+    }
+
+    // construct an empty randomized queue drawing from the given generator,
+    // e.g. a SplittableRandom or Xoshiro256PlusPlus per thread
+    public RandomizedQueue(RandomGenerator generator) {
+        this(MIN_CAPACITY, DEFAULT_GROWTH, checked(generator));
+    }
+
+    // construct an empty randomized queue whose choices are fixed by the seed
+    public RandomizedQueue(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    // construct an empty randomized queue with room for expectedSize items
+    // that grows and shrinks by growthFactor (greater than 1)
+    public RandomizedQueue(int expectedSize, double growthFactor) {
+        this(expectedSize, growthFactor, null);
+    }
+
+    // as above, drawing from the given generator, or from the shared
+    // StdRandom if it is null
+    public RandomizedQueue(int expectedSize, double growthFactor, RandomGenerator generator) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expected size must not be negative");
+        }
+        if (!(growthFactor > 1) || Double.isInfinite(growthFactor)) {
+            throw new IllegalArgumentException("growth factor must be greater than 1");
+        }
+        minCapacity = Math.max(MIN_CAPACITY, expectedSize);
+        queue = (Item[]) new Object[minCapacity];
         numOfItems = 0;
+        this.generator = generator;
+        this.growthFactor = growthFactor;
+    }
+
+    private static RandomGenerator checked(RandomGenerator generator) {
+        if (generator == null) {
+            throw new NullPointerException();
+        }
+        return generator;
+    }
+
+    // uniform random int in [0, n), by Lemire's multiply-shift: the high half
+    // of a 32-bit random times n, redrawn only in the rare biased low range
+    private int uniform(int n) {
+        if (generator == null) {
+            return StdRandom.uniform(n);
+        }
+        long product = (generator.nextInt() & 0xFFFFFFFFL) * n;
+        if ((product & 0xFFFFFFFFL) < n) {
+            long threshold = (0x100000000L - n) % n;
+            while ((product & 0xFFFFFFFFL) < threshold) {
+                product = (generator.nextInt() & 0xFFFFFFFFL) * n;
+            }
+        }
+        return (int) (product >>> 32);
     }
 
     // is the randomized queue empty?
@@ -36,10 +105,77 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
             throw new NullPointerException();
         }
         if (numOfItems == queue.length) {
-            resize(queue.length * 2);
+            resize(grown(numOfItems + 1));
         }
         queue[numOfItems++] = item;
+        if (QueueStats.ENABLED) {
+            stats.operations(1, numOfItems);
+        }
+
+    }
+
+    // add all the items, growing the array at most once
+    public void enqueueAll(Item[] items) {
+        if (items == null) {
+            throw new NullPointerException();
+        }
+        append(items);
+    }
+
+    // add all the items of the collection, growing the array at most once
+    public void enqueueAll(Collection<? extends Item> items) {
+        if (items == null) {
+            throw new NullPointerException();
+        }
+        append(items.toArray());
+    }
 
+    // all items are checked first, so a null item leaves the queue unchanged
+    private void append(Object[] items) {
+        for (Object item : items) {
+            if (item == null) {
+                throw new NullPointerException();
+            }
+        }
+        if (numOfItems + items.length > queue.length) {
+            resize(grown(numOfItems + items.length));
+        }
+        System.arraycopy(items, 0, queue, numOfItems, items.length);
+        numOfItems += items.length;
+        if (QueueStats.ENABLED) {
+            stats.operations(items.length, numOfItems);
+        }
+    }
+
+    // remove and return k items chosen uniformly at random, in random order
+    public List<Item> dequeue(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative");
+        }
+        if (k > numOfItems) {
+            throw new NoSuchElementException("The queue has fewer than k items");
+        }
+        // swap each pick into the tail, then cut the tail off in one copy
+        for (int i = 0; i < k; i++) {
+            int last = numOfItems - 1 - i;
+            int random = uniform(last + 1);
+            Item item = queue[random];
+            queue[random] = queue[last];
+            queue[last] = item;
+        }
+        Object[] picked = new Object[k];
+        System.arraycopy(queue, numOfItems - k, picked, 0, k);
+        Arrays.fill(queue, numOfItems - k, numOfItems, null);
+        numOfItems -= k;
+        if (QueueStats.ENABLED) {
+            stats.operations(k, numOfItems);
+        }
+
+        int capacity = shrunk();
+        if (capacity != queue.length) {
+            resize(capacity);
+        }
+        return (List<Item>) Arrays.asList(picked);
     }
 
     // remove and return a random item
@@ -47,53 +183,98 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
         if (isEmpty()) {
             throw new NoSuchElementException("The queue is empty");
         }
-        int random = StdRandom.uniform(numOfItems);
+        int random = uniform(numOfItems);
         Item item = queue[random];
         queue[random] = queue[numOfItems - 1];
         queue[--numOfItems] = null;
+        if (QueueStats.ENABLED) {
+            stats.operations(1, numOfItems);
+        }
 
-        if (numOfItems > 0 && numOfItems == queue.length/4) {
-            resize(queue.length/2);
+        int capacity = shrunk();
+        if (capacity != queue.length) {
+            resize(capacity);
         }
         return item;
     }
 
+    // shrink the array to exactly the number of items
+    public void trimToSize() {
+        int capacity = Math.max(MIN_CAPACITY, numOfItems);
+        if (capacity != queue.length) {
+            resize(capacity);
+        }
+    }
+
+    // capacity after growing by growthFactor until needed items fit
+    private int grown(int needed) {
+        if (needed > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("queue too large");
+        }
+        long capacity = queue.length;
+        while (capacity < needed) {
+            capacity = Math.max(capacity + 1, (long) (capacity * growthFactor));
+        }
+        return (int) Math.min(capacity, Integer.MAX_VALUE - 8);
+    }
+
+    // capacity after shrinking by growthFactor while the array is sparse,
+    // stopping at the expected size the queue was constructed with; so an
+    // emptied queue goes back to its starting size
+    private int shrunk() {
+        int capacity = queue.length;
+        while (capacity > minCapacity
+                && numOfItems <= capacity / (growthFactor * growthFactor)) {
+            capacity = Math.max(minCapacity, (int) (capacity / growthFactor));
+        }
+        return capacity;
+    }
+
     private void resize(int capacity) {
-        Item[] copy = (Item[]) new Object[capacity];
-        for (int i = 0; i < numOfItems; i++) {
-            copy[i] = queue[i];
+        queue = Arrays.copyOf(queue, capacity);
+        if (QueueStats.ENABLED) {
+            stats.resized(numOfItems);
         }
-        queue = copy;
     }
     // return a random item (but do not remove it)
     public Item sample() {
         if (numOfItems == 0) {
             throw new NoSuchElementException("The queue is empty");
         }
-        int i = StdRandom.uniform(numOfItems);
+        int i = uniform(numOfItems);
+        if (QueueStats.ENABLED) {
+            stats.operations(1, numOfItems);
+        }
         return queue[i];
     }
 
+    // operation and resize counts; all zero unless -Dqueue.metrics=true
+    public QueueStats stats() {
+        return stats;
+    }
+
     // return an independent iterator over items in random order
     public Iterator<Item> iterator() {
         return new ListIterator();
     }
 
+    // Fisher-Yates shuffle done one step per next(): step i swaps a random
+    // position of the unvisited range [0, remaining) with its last position.
+    // Only positions that have been swapped are stored, in a small hash table,
+    // so taking k items costs O(k) time and space whatever the queue size.
     private class ListIterator implements Iterator<Item> {
-
-        private int i;
+        private final Item[] items = queue;  // the items at creation
+        private int remaining = numOfItems;
+        private int[] keys = new int[16];    // swapped positions, -1 if empty
+        private int[] values = new int[16];  // index now found at that position
+        private int stored = 0;
 
         public ListIterator() {
-            i = 0;
-            int[] randomIndices = new int[numOfItems];
-            for (int j = 0; j < numOfItems; j++) {
-                randomIndices[j] = j;
-            }
-            StdRandom.shuffle(randomIndices);
+            Arrays.fill(keys, -1);
         }
 
         public boolean hasNext() {
-            return i < numOfItems;
+            return remaining > 0;
         }
 
         public void remove() {
@@ -104,8 +285,59 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
             if (!hasNext()) {
                 throw new NoSuchElementException();
             }
-            Item item = queue[i++];
-            return item;
+            int random = uniform(remaining);
+            int last = --remaining;
+            int picked = get(random);
+            if (random != last) {
+                put(random, get(last));
+            }
+            return items[picked];
+        }
+
+        // index at position p: its own unless a swap moved another one there
+        private int get(int p) {
+            int mask = keys.length - 1;
+            for (int slot = mix(p) & mask; keys[slot] != -1; slot = (slot + 1) & mask) {
+                if (keys[slot] == p) {
+                    return values[slot];
+                }
+            }
+            return p;
+        }
+
+        private void put(int p, int index) {
+            if (2 * (stored + 1) > keys.length) {
+                rehash();
+            }
+            int mask = keys.length - 1;
+            int slot = mix(p) & mask;
+            while (keys[slot] != -1 && keys[slot] != p) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == -1) {
+                keys[slot] = p;
+                stored++;
+            }
+            values[slot] = index;
+        }
+
+        private void rehash() {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            Arrays.fill(keys, -1);
+            stored = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != -1) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private int mix(int p) {
+            int h = p * 0x9E3779B9;
+            return h ^ (h >>> 16);
         }
     }
 
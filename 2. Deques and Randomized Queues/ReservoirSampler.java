@@ -0,0 +1,82 @@
+/* *****************************************************************************
+ *  Topic:     Reservoir sampling.
+ *             Keeps a uniformly random sample of k items from a stream of
+ *             unknown length in a RandomizedQueue of at most k items, so memory
+ *             is O(k) however long the stream is. Uses Li's Algorithm L: once
+ *             the reservoir is full it draws how many items to skip before the
+ *             next replacement, instead of a random number per item.
+ *  @author:   Ying Chu
+ **************************************************************************** */
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.StdRandom;
+
+public class ReservoirSampler<Item> {
+    private final int k;
+    private final RandomizedQueue<Item> reservoir = new RandomizedQueue<Item>();
+    private double w;  // Algorithm L's running maximum of the item keys
+    private long skip; // items still to pass over before the next replacement
+
+    // sample k items
+    public ReservoirSampler(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative");
+        }
+        this.k = k;
+    }
+
+    // offer the next item of the stream
+    public void offer(Item item) {
+        if (item == null) {
+            throw new NullPointerException();
+        }
+        if (reservoir.size() < k) {
+            reservoir.enqueue(item);
+            if (reservoir.size() == k) {
+                w = Math.exp(Math.log(uniform()) / k);
+                nextSkip();
+            }
+        } else if (k > 0) {
+            if (skip > 0) {
+                skip--;
+                return;
+            }
+            // replacing a uniformly random slot: drop a random item, add this one
+            reservoir.dequeue();
+            reservoir.enqueue(item);
+            w *= Math.exp(Math.log(uniform()) / k);
+            nextSkip();
+        }
+    }
+
+    private void nextSkip() {
+        skip = (long) Math.floor(Math.log(uniform()) / Math.log1p(-w));
+    }
+
+    // uniform in (0, 1], so its log is finite
+    private static double uniform() {
+        return 1.0 - StdRandom.uniform();
+    }
+
+    // the sample so far: every offered item is in it with equal probability;
+    // dequeue from it to read the items out in random order
+    public RandomizedQueue<Item> sample() {
+        return reservoir;
+    }
+
+    // unit testing: how often each of 10 items lands in a sample of 3
+    public static void main(String[] args) {
+        int[] hits = new int[10];
+        for (int t = 0; t < 100000; t++) {
+            ReservoirSampler<Integer> sampler = new ReservoirSampler<Integer>(3);
+            for (int i = 0; i < hits.length; i++) {
+                sampler.offer(i);
+            }
+            for (int i : sampler.sample()) {
+                hits[i]++;
+            }
+        }
+        for (int i = 0; i < hits.length; i++) {
+            StdOut.println(i + ": " + hits[i]);
+        }
+    }
+}
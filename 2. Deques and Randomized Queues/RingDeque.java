@@ -0,0 +1,242 @@
+/* *****************************************************************************
+ *  Topic:     Array-backed deque.
+ *             Same operations as Deque, but the items sit in a circular array
+ *             whose length is a power of two, so wrapping an index is a mask
+ *             instead of a branch. The array doubles when full and halves when
+ *             a quarter full, which keeps every operation amortised constant
+ *             time without a node per item.
+ *  @author:   Ying Chu
+ **************************************************************************** */
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import edu.princeton.cs.algs4.StdOut;
+
+public class RingDeque<Item> implements Iterable<Item> {
+    private static final int MIN_CAPACITY = 8;
+
+    private Item[] items;
+    private int head = 0;  // index of the first item
+    private int size = 0;
+
+    // construct an empty deque
+    public RingDeque() {
+        items = (Item[]) new Object[MIN_CAPACITY];
+    }
+
+    // is the deque empty?
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // return the number of items on the deque
+    public int size() {
+        return size;
+    }
+
+    // add the item to the front
+    public void addFirst(Item item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Item cannot be null");
+        }
+        if (size == items.length) {
+            resize(items.length * 2);
+        }
+        head = (head - 1) & (items.length - 1);
+        items[head] = item;
+        size++;
+    }
+
+    // add the item to the back
+    public void addLast(Item item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Item cannot be null");
+        }
+        if (size == items.length) {
+            resize(items.length * 2);
+        }
+        items[(head + size) & (items.length - 1)] = item;
+        size++;
+    }
+
+    // add the items to the front, keeping their order: added[0] becomes first
+    public void addAllFirst(Item[] added) {
+        if (added == null) {
+            throw new IllegalArgumentException("Items cannot be null");
+        }
+        insert(added, true);
+    }
+
+    // add the items to the front in iteration order
+    public void addAllFirst(Collection<? extends Item> added) {
+        if (added == null) {
+            throw new IllegalArgumentException("Items cannot be null");
+        }
+        insert(added.toArray(), true);
+    }
+
+    // add the items to the back, keeping their order
+    public void addAllLast(Item[] added) {
+        if (added == null) {
+            throw new IllegalArgumentException("Items cannot be null");
+        }
+        insert(added, false);
+    }
+
+    // add the items to the back in iteration order
+    public void addAllLast(Collection<? extends Item> added) {
+        if (added == null) {
+            throw new IllegalArgumentException("Items cannot be null");
+        }
+        insert(added.toArray(), false);
+    }
+
+    // remove up to max items from the front, adding them to target in order;
+    // returns the number of items moved. Items are removed only once target
+    // has accepted them, so if target throws, the rest stay on the deque.
+    public int drainTo(Collection<? super Item> target, int max) {
+        if (target == null) {
+            throw new IllegalArgumentException("Target cannot be null");
+        }
+        int limit = Math.max(0, Math.min(max, size));
+        int moved = 0;
+        try {
+            while (moved < limit) {
+                target.add(items[(head + moved) & (items.length - 1)]);
+                moved++;
+            }
+        } finally {
+            discardFirst(moved);
+        }
+        return moved;
+    }
+
+    // drop the first count items in one step, then shrink to fit
+    private void discardFirst(int count) {
+        if (count == 0) {
+            return;
+        }
+        int firstPart = Math.min(count, items.length - head);
+        Arrays.fill(items, head, head + firstPart, null);
+        Arrays.fill(items, 0, count - firstPart, null);
+        head = (head + count) & (items.length - 1);
+        size -= count;
+        while (items.length > MIN_CAPACITY && size <= items.length / 4) {
+            resize(items.length / 2);
+        }
+    }
+
+    // grow once to fit the items, then copy them in at the front or back; all
+    // items are checked first, so a null item leaves the deque unchanged
+    private void insert(Object[] added, boolean front) {
+        for (Object item : added) {
+            if (item == null) {
+                throw new IllegalArgumentException("Item cannot be null");
+            }
+        }
+        if ((long) size + added.length > 1 << 30) {
+            throw new IllegalStateException("deque too large");
+        }
+        int capacity = items.length;
+        while (capacity < size + added.length) {
+            capacity *= 2;
+        }
+        if (capacity != items.length) {
+            resize(capacity);
+        }
+        int start = front ? (head - added.length) & (items.length - 1)
+                          : (head + size) & (items.length - 1);
+        int firstPart = Math.min(added.length, items.length - start);
+        System.arraycopy(added, 0, items, start, firstPart);
+        System.arraycopy(added, firstPart, items, 0, added.length - firstPart);
+        if (front) {
+            head = start;
+        }
+        size += added.length;
+    }
+
+    // remove and return the item from the front
+    public Item removeFirst() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("The deque is empty");
+        }
+        Item item = items[head];
+        items[head] = null;
+        head = (head + 1) & (items.length - 1);
+        size--;
+        shrink();
+        return item;
+    }
+
+    // remove and return the item from the back
+    public Item removeLast() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("The deque is empty");
+        }
+        int tail = (head + size - 1) & (items.length - 1);
+        Item item = items[tail];
+        items[tail] = null;
+        size--;
+        shrink();
+        return item;
+    }
+
+    private void shrink() {
+        if (items.length > MIN_CAPACITY && size == items.length / 4) {
+            resize(items.length / 2);
+        }
+    }
+
+    // move the items to a new array of the given power-of-two length, unwrapped
+    private void resize(int capacity) {
+        Item[] copy = (Item[]) new Object[capacity];
+        int firstPart = Math.min(size, items.length - head);
+        System.arraycopy(items, head, copy, 0, firstPart);
+        System.arraycopy(items, 0, copy, firstPart, size - firstPart);
+        items = copy;
+        head = 0;
+    }
+
+    // return an iterator over items in order from front to back
+    public Iterator<Item> iterator() {
+        return new ArrayIterator();
+    }
+
+    private class ArrayIterator implements Iterator<Item> {
+        private int i = 0;
+
+        public boolean hasNext() {
+            return i < size;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        public Item next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return items[(head + i++) & (items.length - 1)];
+        }
+    }
+
+    // unit testing
+    public static void main(String[] args) {
+        RingDeque<String> deque = new RingDeque<String>();
+
+        deque.addFirst("Apple");
+        deque.addFirst("Banana");
+        deque.addLast("Pear");
+        deque.removeFirst();
+        deque.removeLast();
+        deque.addLast("Cherry");
+        StdOut.println("Is the deque empty: " + deque.isEmpty());
+        StdOut.println("Size of the deque: " + deque.size());
+        for (String i : deque) {
+            StdOut.println(i);
+        }
+    }
+}
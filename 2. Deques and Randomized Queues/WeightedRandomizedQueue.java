@@ -0,0 +1,292 @@
+/* *****************************************************************************
+ *  Topic:    Weighted randomized queue.
+ *            Like a randomized queue, but the item removed is chosen with
+ *            probability proportional to its weight. The weights sit in a
+ *            Fenwick (binary indexed) tree over the item slots, so adding,
+ *            removing, sampling and changing a weight are all O(log n).
+ *            Items keep their slot while queued, so the handle returned by
+ *            enqueue can be used to change the item's weight later.
+ *  @author:  Ying Chu
+ **************************************************************************** */
+import edu.princeton.cs.algs4.StdOut;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+public class WeightedRandomizedQueue<Item> {
+    private Item[] items;     // items by slot, null for a free slot
+    private double[] weights; // weights by slot, 0 for a free slot
+    private double[] tree;    // Fenwick tree over weights, 1-based
+    private int[] free;       // stack of free slots below used
+    private int freeCount = 0;
+    private int used = 0;     // slots [0, used) have been handed out
+    private int numOfItems = 0;
+    private int updates = 0;      // tree updates since the last rebuild
+    private double churn = 0;     // sum of their absolute sizes
+    private final RandomGenerator generator;
+
+    // rebuild once the updates since the last rebuild outweigh the total by
+    // this factor, before their rounding errors reach the leading digits
+    private static final double MAX_CHURN = 0x1p20;
+    private static final int INITIAL_CAPACITY = 2;
+    // descents tried before falling back to a linear scan of the weights
+    private static final int MAX_DESCENTS = 4;
+
+    // construct an empty weighted randomized queue
+    public WeightedRandomizedQueue() {
+        this(new SplittableRandom());
+    }
+
+    // construct an empty weighted randomized queue drawing from the generator
+    public WeightedRandomizedQueue(RandomGenerator generator) {
+        if (generator == null) {
+            throw new NullPointerException();
+        }
+        this.generator = generator;
+        allocate(INITIAL_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        items = (Item[]) new Object[capacity];
+        weights = new double[capacity];
+        tree = new double[capacity + 1];
+        free = new int[capacity];
+    }
+
+    // is the queue empty?
+    public boolean isEmpty() {
+        return numOfItems == 0;
+    }
+
+    // return the number of items on the queue
+    public int size() {
+        return numOfItems;
+    }
+
+    // sum of the weights of all items
+    public double totalWeight() {
+        return Math.max(0, prefix(used));
+    }
+
+    // add the item with the given positive weight; returns its handle, valid
+    // until the item is dequeued
+    public int enqueue(Item item, double weight) {
+        if (item == null) {
+            throw new NullPointerException();
+        }
+        checkWeight(weight);
+        int slot;
+        if (freeCount > 0) {
+            slot = free[--freeCount];
+        } else {
+            if (used == items.length) {
+                resize(items.length * 2);
+            }
+            slot = used++;
+        }
+        items[slot] = item;
+        weights[slot] = weight;
+        add(slot, weight);
+        numOfItems++;
+        settle();
+        return slot;
+    }
+
+    // change the weight of the item with the given handle
+    public void setWeight(int handle, double weight) {
+        checkHandle(handle);
+        checkWeight(weight);
+        add(handle, weight - weights[handle]);
+        weights[handle] = weight;
+        settle();
+    }
+
+    // weight of the item with the given handle
+    public double weight(int handle) {
+        checkHandle(handle);
+        return weights[handle];
+    }
+
+    // remove and return an item chosen with probability proportional to its weight
+    public Item dequeue() {
+        int slot = pick();
+        Item item = items[slot];
+        add(slot, -weights[slot]);
+        items[slot] = null;
+        weights[slot] = 0;
+        free[freeCount++] = slot;
+        numOfItems--;
+        settle();
+        return item;
+    }
+
+    // return an item chosen with probability proportional to its weight
+    // (but do not remove it)
+    public Item sample() {
+        return items[pick()];
+    }
+
+    // slot whose weight interval contains a uniform point of [0, total)
+    private int pick() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("The queue is empty");
+        }
+        for (int attempt = 0; attempt < MAX_DESCENTS; attempt++) {
+            double target = generator.nextDouble() * totalWeight();
+            // Fenwick descent: largest position whose prefix sum is <= target
+            int position = 0;
+            for (int step = Integer.highestOneBit(used); step > 0; step >>= 1) {
+                int next = position + step;
+                if (next <= used && tree[next] <= target) {
+                    position = next;
+                    target -= tree[next];
+                }
+            }
+            // rounding in the sums can land on a free slot or past the end
+            if (position < used && items[position] != null) {
+                return position;
+            }
+        }
+        return scan();
+    }
+
+    // the same pick by a linear walk over the weights themselves, which are
+    // exact; used when the tree keeps missing
+    private int scan() {
+        double total = 0;
+        for (int i = 0; i < used; i++) {
+            total += weights[i];
+        }
+        double target = generator.nextDouble() * total;
+        int slot = -1;
+        for (int i = 0; i < used; i++) {
+            if (items[i] != null) {
+                slot = i;
+                target -= weights[i];
+                if (target < 0) {
+                    break;
+                }
+            }
+        }
+        return slot;
+    }
+
+    // add delta to the weight of slot in the tree
+    private void add(int slot, double delta) {
+        updates++;
+        churn += Math.abs(delta);
+        for (int i = slot + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    // sum of the weights of slots [0, count)
+    private double prefix(int count) {
+        double sum = 0;
+        for (int i = count; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    // the tree only ever changes by deltas, so its sums pick up rounding
+    // errors, and removing a heavy item can cancel the light ones left beside
+    // it down to nothing. Start over with small arrays when the queue
+    // empties, and rebuild from the weights after as many updates as there
+    // are slots in use (amortised O(1), since a rebuild is O(used)) or once
+    // the updates dwarf the total that is left.
+    private void settle() {
+        if (numOfItems == 0) {
+            if (items.length > INITIAL_CAPACITY) {
+                allocate(INITIAL_CAPACITY);
+            } else {
+                Arrays.fill(tree, 0);
+            }
+            used = 0;
+            freeCount = 0;
+            updates = 0;
+            churn = 0;
+        } else if (updates >= used || churn > totalWeight() * MAX_CHURN) {
+            rebuild();
+        }
+    }
+
+    // grow the slot arrays and rebuild the tree from the weights
+    private void resize(int capacity) {
+        Item[] itemsCopy = (Item[]) new Object[capacity];
+        double[] weightsCopy = new double[capacity];
+        System.arraycopy(items, 0, itemsCopy, 0, used);
+        System.arraycopy(weights, 0, weightsCopy, 0, used);
+        int[] freeCopy = new int[capacity];
+        System.arraycopy(free, 0, freeCopy, 0, freeCount);
+        items = itemsCopy;
+        weights = weightsCopy;
+        free = freeCopy;
+        tree = new double[capacity + 1];
+        rebuild();
+    }
+
+    // fill the tree from the weights of the slots in use, in
+    // O(used + log^2 capacity). Slots from used on have held no weight since
+    // the tree was last zeroed, so the nodes covering only them are still
+    // exactly 0; the nodes past used that also cover slots below it are the
+    // ancestors of node used, and each is a difference of two prefix sums.
+    private void rebuild() {
+        Arrays.fill(tree, 1, used + 1, 0);
+        for (int i = 1; i <= used; i++) {
+            tree[i] += weights[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= used) {
+                tree[parent] += tree[i];
+            }
+        }
+        if (used > 0) {
+            double total = prefix(used);
+            for (int i = used + (used & -used); i < tree.length; i += i & -i) {
+                tree[i] = total - prefix(i - (i & -i));
+            }
+        }
+        updates = 0;
+        churn = 0;
+    }
+
+    private void checkWeight(double weight) {
+        if (!(weight > 0) || Double.isInfinite(weight)) {
+            throw new IllegalArgumentException("weight must be positive and finite");
+        }
+    }
+
+    private void checkHandle(int handle) {
+        if (handle < 0 || handle >= used || items[handle] == null) {
+            throw new IllegalArgumentException("no item with handle " + handle);
+        }
+    }
+
+    // unit testing: items weighted 1, 2, 3, 4 are sampled in that ratio
+    public static void main(String[] args) {
+        WeightedRandomizedQueue<String> rq = new WeightedRandomizedQueue<String>(new SplittableRandom(1));
+        String[] names = { "one", "two", "three", "four" };
+        int[] handles = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            handles[i] = rq.enqueue(names[i], i + 1);
+        }
+        int[] hits = new int[names.length];
+        for (int t = 0; t < 100000; t++) {
+            String item = rq.sample();
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equals(item)) {
+                    hits[i]++;
+                }
+            }
+        }
+        for (int i = 0; i < names.length; i++) {
+            StdOut.println(names[i] + ": " + hits[i]);
+        }
+
+        rq.setWeight(handles[0], 100);
+        StdOut.println("After reweighting, total weight: " + rq.totalWeight());
+        StdOut.println("Dequeued: " + rq.dequeue());
+        StdOut.println("Size: " + rq.size());
+    }
+}
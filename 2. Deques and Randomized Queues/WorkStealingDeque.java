@@ -0,0 +1,158 @@
+/* *****************************************************************************
+ *  Topic:     Work-stealing deque.
+ *             A lock-free deque after Chase and Lev: one owner thread adds and
+ *             removes items at the back, any number of other threads steal
+ *             items from the front. The owner only contends with thieves for
+ *             the last item, so neither end needs a lock. Items live in a
+ *             circular array that the owner doubles when it fills up.
+ *  @author:   Ying Chu
+ **************************************************************************** */
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import edu.princeton.cs.algs4.StdOut;
+
+public class WorkStealingDeque<Item> {
+    private static final int MIN_CAPACITY = 16;
+
+    // front of the deque; only ever moves forward, by CAS
+    private final AtomicLong top = new AtomicLong();
+    // one past the back of the deque; written by the owner only
+    private volatile long bottom = 0;
+    private volatile AtomicReferenceArray<Item> items =
+            new AtomicReferenceArray<Item>(MIN_CAPACITY);
+
+    // construct an empty deque
+    public WorkStealingDeque() {
+    }
+
+    // is the deque empty? Exact for the owner, an estimate for other threads.
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // number of items; exact for the owner, an estimate for other threads
+    public int size() {
+        long size = bottom - top.get();
+        return size <= 0 ? 0 : (int) size;
+    }
+
+    // add the item to the back; owner thread only
+    public void addLast(Item item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Item cannot be null");
+        }
+        long b = bottom;
+        long t = top.get();
+        AtomicReferenceArray<Item> a = items;
+        // a slot still holding this very item may have a thief about to clear
+        // it (see removeFirst), so move to a new array rather than reuse it
+        if (b - t >= a.length() || a.get((int) b & (a.length() - 1)) == item) {
+            a = resize(a, t, b);
+        }
+        a.set((int) b & (a.length() - 1), item);
+        bottom = b + 1;
+    }
+
+    // remove and return the item from the back; owner thread only
+    public Item removeLast() {
+        long b = bottom - 1;
+        AtomicReferenceArray<Item> a = items;
+        bottom = b;
+        long t = top.get();
+        if (t > b) {
+            // empty: a thief got here first or there was nothing to take
+            bottom = b + 1;
+            throw new NoSuchElementException("The deque is empty");
+        }
+        int slot = (int) b & (a.length() - 1);
+        Item item = a.get(slot);
+        if (t == b) {
+            // last item: race the thieves for it
+            boolean won = top.compareAndSet(t, t + 1);
+            bottom = b + 1;
+            if (!won) {
+                throw new NoSuchElementException("The deque is empty");
+            }
+        }
+        a.set(slot, null); // avoid loitering
+        return item;
+    }
+
+    // remove and return the item from the front; any thread. Retries while it
+    // loses races to other thieves and throws only when the deque is empty.
+    public Item removeFirst() {
+        while (true) {
+            long t = top.get();
+            long b = bottom;
+            if (t >= b) {
+                throw new NoSuchElementException("The deque is empty");
+            }
+            AtomicReferenceArray<Item> a = items;
+            int slot = (int) t & (a.length() - 1);
+            Item item = a.get(slot);
+            if (top.compareAndSet(t, t + 1)) {
+                // avoid loitering; the owner may already have reused the slot
+                // for another item, which the compare leaves in place
+                a.compareAndSet(slot, item, null);
+                return item;
+            }
+        }
+    }
+
+    // copy the live items t..b-1 into an array twice as long; owner thread only
+    private AtomicReferenceArray<Item> resize(AtomicReferenceArray<Item> a, long t, long b) {
+        AtomicReferenceArray<Item> copy = new AtomicReferenceArray<Item>(a.length() * 2);
+        for (long i = t; i < b; i++) {
+            copy.set((int) i & (copy.length() - 1), a.get((int) i & (a.length() - 1)));
+        }
+        items = copy;
+        // items stolen during the copy were cleared in the old array only;
+        // drop their copies too. The new array is at least twice the live
+        // range, so these slots cannot alias a live item.
+        for (long i = t, stolen = Math.min(top.get(), b); i < stolen; i++) {
+            copy.set((int) i & (copy.length() - 1), null);
+        }
+        return copy;
+    }
+
+    // unit testing: one owner pushing and popping, three thieves stealing
+    public static void main(String[] args) throws InterruptedException {
+        final int total = 1000000;
+        WorkStealingDeque<Integer> deque = new WorkStealingDeque<Integer>();
+        AtomicLong taken = new AtomicLong();
+        AtomicLong sum = new AtomicLong();
+
+        Thread[] thieves = new Thread[3];
+        for (int i = 0; i < thieves.length; i++) {
+            thieves[i] = new Thread(() -> {
+                while (taken.get() < total) {
+                    try {
+                        sum.addAndGet(deque.removeFirst());
+                        taken.incrementAndGet();
+                    } catch (NoSuchElementException e) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            thieves[i].start();
+        }
+        for (int i = 1; i <= total; i++) {
+            deque.addLast(i);
+            if (i % 3 == 0) {
+                try {
+                    sum.addAndGet(deque.removeLast());
+                    taken.incrementAndGet();
+                } catch (NoSuchElementException e) {
+                    // stolen already
+                }
+            }
+        }
+        for (Thread thief : thieves) {
+            thief.join();
+        }
+        StdOut.println("Items taken: " + taken.get());
+        StdOut.println("Sum matches: " + (sum.get() == (long) total * (total + 1) / 2));
+    }
+}
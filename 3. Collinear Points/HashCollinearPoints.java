@@ -0,0 +1,142 @@
+/* *****************************************************************************
+ *  Topic:    Sort-Free, Hashing-Based Solution
+ *  @author:  Ying Chu
+ *  Method:
+    1. Order the points once by y-coordinate, breaking ties by x-coordinate.
+    2. Think of each point p in turn as the origin.
+    3. For each other point q, reduce (q - p) to its lowest terms (dx/g, dy/g)
+       and flip it to point forward in that order; collinear points with p
+       share the same reduced direction exactly, with no floating point.
+    4. Count the points after p in each direction in a primitive hash table,
+       and note the directions that also have a point before p.
+    5. A direction with 3 or more points after p and none before it is a
+       maximal segment starting at p; it ends at the last of those points.
+    Expected O(n^2) time, with the table allocated once for all origins.
+ **************************************************************************** */
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class HashCollinearPoints {
+    private final ArrayList<LineSegment> lineSegmentList = new ArrayList<LineSegment>();
+
+    // direction table, open addressing; a slot is in use for the current
+    // origin when its stamp equals the origin's index + 1
+    private long[] keyX;
+    private long[] keyY;
+    private int[] stamp;
+    private int[] count;    // points after the origin in this direction
+    private int[] last;     // index of the last of them
+    private boolean[] behind; // some point before the origin in this direction
+    private int[] inUse;    // slots used for the current origin
+    private int used;
+
+    public HashCollinearPoints(Point[] points) {
+        // three Corner cases
+        // 1. if the argument to the constructor is null
+        if (points == null) {
+            throw new IllegalArgumentException("no point in the array");
+        }
+        // 2. if any point in the array is null
+        for (int i = 0; i < points.length; i++) {
+            if (points[i] == null) {
+                throw new IllegalArgumentException("null point occurs");
+            }
+        }
+        Point[] pCopy = points.clone();
+        Arrays.sort(pCopy, (a, b) -> a.y() != b.y() ? Integer.compare(a.y(), b.y())
+                                                     : Integer.compare(a.x(), b.x()));
+        // 3. containing a repeated point
+        for (int i = 0; i < (pCopy.length - 1); i++) {
+            if (pCopy[i].x() == pCopy[i + 1].x() && pCopy[i].y() == pCopy[i + 1].y()) {
+                throw new IllegalArgumentException("points duplicated");
+            }
+        }
+
+        int capacity = Integer.highestOneBit(Math.max(2, pCopy.length) * 2 - 1) * 2;
+        keyX = new long[capacity];
+        keyY = new long[capacity];
+        stamp = new int[capacity];
+        count = new int[capacity];
+        last = new int[capacity];
+        behind = new boolean[capacity];
+        inUse = new int[pCopy.length];
+
+        for (int i = 0; i < pCopy.length; i++) {
+            Point p = pCopy[i];
+            used = 0;
+            for (int j = 0; j < pCopy.length; j++) {
+                if (j == i) {
+                    continue;
+                }
+                long dx = (long) pCopy[j].x() - p.x();
+                long dy = (long) pCopy[j].y() - p.y();
+                long g = gcd(Math.abs(dx), Math.abs(dy));
+                dx /= g;
+                dy /= g;
+                if (j < i) {
+                    // point before p: flip to the forward direction
+                    behind[slot(-dx, -dy, i)] = true;
+                } else {
+                    int slot = slot(dx, dy, i);
+                    count[slot]++;
+                    last[slot] = j;
+                }
+            }
+            for (int k = 0; k < used; k++) {
+                int slot = inUse[k];
+                if (count[slot] >= 3 && !behind[slot]) {
+                    lineSegmentList.add(new LineSegment(p, pCopy[last[slot]]));
+                }
+            }
+        }
+
+        // the table is only needed while constructing
+        keyX = null;
+        keyY = null;
+        stamp = null;
+        count = null;
+        last = null;
+        behind = null;
+        inUse = null;
+    }
+
+    // slot of direction (dx, dy) for origin i, claiming a fresh one if needed
+    private int slot(long dx, long dy, int i) {
+        int mask = stamp.length - 1;
+        long h = dx * 0x9E3779B97F4A7C15L + dy * 0xC2B2AE3D27D4EB4FL;
+        int slot = (int) (h ^ (h >>> 32)) & mask;
+        while (stamp[slot] == i + 1) {
+            if (keyX[slot] == dx && keyY[slot] == dy) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        stamp[slot] = i + 1;
+        keyX[slot] = dx;
+        keyY[slot] = dy;
+        count[slot] = 0;
+        behind[slot] = false;
+        inUse[used++] = slot;
+        return slot;
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    // the number of line segments
+    public int numberOfSegments() {
+        return lineSegmentList.size();
+    }
+
+    // the line segments
+    public LineSegment[] segments() {
+        return lineSegmentList.toArray(new LineSegment[0]);
+    }
+
+}
@@ -15,6 +15,16 @@ public class Point implements Comparable<Point> {
         this.y = y;
     }
 
+    // x-coordinate, for the sort-free engine in HashCollinearPoints
+    int x() {
+        return x;
+    }
+
+    // y-coordinate, for the sort-free engine in HashCollinearPoints
+    int y() {
+        return y;
+    }
+
     // draws this point
     public void draw() {
         /* DO NOT MODIFY */
@@ -0,0 +1,156 @@
+/* *****************************************************************************
+ *  Topic:        JMH benchmarks for Percolation and PercolationStats.
+ *                Single-site open throughput, isFull on a percolating grid,
+ *                full-trial latency at n = 200, 1000 and 4000, and
+ *                PercolationStats end to end for each sampling strategy.
+ *                Shuffled site orders are built once per trial of the
+ *                benchmark, outside the measured code. Run with -prof gc for
+ *                bytes allocated per operation; see ../pom.xml.
+ *  @author:      Ying Chu
+ **************************************************************************** */
+package percolation;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@Fork(3)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PercolationBenchmarks {
+    private static final long SEED = 42;
+    private static final int OPEN_N = 1000;
+    private static final int QUERIES = 1 << 16;
+
+    // every site of an n-by-n grid, in shuffled order
+    static int[] shuffled(int n, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] order = new int[n * n];
+        for (int i = 0; i < order.length; i++) {
+            int j = random.nextInt(i + 1);
+            order[i] = order[j];
+            order[j] = i;
+        }
+        return order;
+    }
+
+    @State(Scope.Thread)
+    public static class OpenState {
+        int[] order;
+
+        @Setup
+        public void setUp() {
+            order = shuffled(OPEN_N, SEED);
+        }
+    }
+
+    // opens every site of a 1000-by-1000 grid; one operation is one open
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @OperationsPerInvocation(OPEN_N * OPEN_N)
+    public Percolation open(OpenState state) {
+        Percolation percolation = new Percolation(OPEN_N);
+        for (int site : state.order) {
+            percolation.open(site / OPEN_N + 1, site % OPEN_N + 1);
+        }
+        return percolation;
+    }
+
+    @State(Scope.Thread)
+    public static class QueryState {
+        Percolation percolation;
+        int[] rows;
+        int[] cols;
+
+        @Setup
+        public void setUp() {
+            int[] order = shuffled(OPEN_N, SEED);
+            percolation = new Percolation(OPEN_N);
+            for (int k = 0; !percolation.percolates(); k++) {
+                percolation.open(order[k] / OPEN_N + 1, order[k] % OPEN_N + 1);
+            }
+            SplittableRandom random = new SplittableRandom(SEED + 1);
+            rows = new int[QUERIES];
+            cols = new int[QUERIES];
+            for (int i = 0; i < QUERIES; i++) {
+                rows[i] = random.nextInt(OPEN_N) + 1;
+                cols[i] = random.nextInt(OPEN_N) + 1;
+            }
+        }
+    }
+
+    // isFull at random sites of a 1000-by-1000 grid that has just percolated
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @OperationsPerInvocation(QUERIES)
+    public int isFull(QueryState state) {
+        int full = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            if (state.percolation.isFull(state.rows[i], state.cols[i])) {
+                full++;
+            }
+        }
+        return full;
+    }
+
+    @State(Scope.Thread)
+    public static class TrialState {
+        @Param({ "200", "1000", "4000" })
+        int n;
+
+        // a few orders in turn, so no single order is learned by the predictors
+        int[][] orders;
+        int next;
+
+        @Setup
+        public void setUp() {
+            orders = new int[4][];
+            for (int i = 0; i < orders.length; i++) {
+                orders[i] = shuffled(n, SEED + i);
+            }
+        }
+    }
+
+    // one trial: open shuffled sites until the grid percolates
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int trial(TrialState state) {
+        int n = state.n;
+        int[] order = state.orders[state.next++ & (state.orders.length - 1)];
+        Percolation percolation = new Percolation(n);
+        int k = 0;
+        while (!percolation.percolates()) {
+            int site = order[k++];
+            percolation.open(site / n + 1, site % n + 1);
+        }
+        return k;
+    }
+
+    @State(Scope.Benchmark)
+    public static class StatsState {
+        @Param({ "REJECTION", "SHUFFLED", "THRESHOLD" })
+        PercolationStats.Sampling sampling;
+    }
+
+    // PercolationStats end to end: 100 seeded trials on a 200-by-200 grid
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public double stats(StatsState state) {
+        return new PercolationStats(200, 100, SEED, false, state.sampling).mean();
+    }
+}